@@ -0,0 +1,34 @@
+package bench;
+
+import model.Board;
+
+// Các thế cờ cố định cho benchmark (trắng đi trước).
+public final class BenchPositions {
+
+    // Sau 1.e4 e5 2.Nf3 Nc6 3.Bc4 Bc5
+    public static final String OPENING = "r1bqk1nr/pppp1ppp/2n5/2b1p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4";
+    // Thế "Kiwipete", nhiều quân và nhiều va chạm
+    public static final String MIDDLEGAME = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    // Tàn cuộc xe và tốt
+    public static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    private BenchPositions() {
+    }
+
+    public static String fen(String name) {
+        switch (name) {
+            case "opening":
+                return OPENING;
+            case "middlegame":
+                return MIDDLEGAME;
+            case "endgame":
+                return ENDGAME;
+            default:
+                throw new IllegalArgumentException("Không có thế cờ: " + name);
+        }
+    }
+
+    public static Board create(String name) {
+        return Board.fromFen(fen(name));
+    }
+}
@@ -0,0 +1,23 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Chạy toàn bộ benchmark (hoặc theo biểu thức lọc ở tham số đầu tiên)
+// kèm GC profiler để báo cáo lượng cấp phát bộ nhớ mỗi thao tác.
+//
+// Cách chạy: mvn -f CoVua/bench/pom.xml package && java -jar CoVua/bench/target/benchmarks.jar [lọc]
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = (args.length > 0) ? args[0] : "bench\\..*";
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,140 @@
+package bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Board;
+import model.PieceColor;
+import modelAI.IntMoveList;
+import modelAI.Move;
+import modelAI.PackedMove;
+
+// Các đường nóng của Board trên từng thế cờ cố định.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({ "opening", "middlegame", "endgame" })
+    public String position;
+
+    private Board board;
+    private Board fenBoard; // nạp lại FEN tại chỗ
+    private String fen;
+    private PieceColor side;
+    private IntMoveList moves;
+    private int[] candidates; // mọi cặp (ô đi, ô đến) giả hợp lệ, kể cả nước tự chiếu
+    private Move sampleMove;
+    private int samplePacked;
+
+    @Setup
+    public void setup() {
+        fen = BenchPositions.fen(position);
+        board = Board.fromFen(fen);
+        fenBoard = Board.fromFen(fen);
+        side = PieceColor.WHITE;
+        moves = new IntMoveList();
+
+        List<Move> legal = board.getLegalMoves(side);
+        sampleMove = legal.get(0);
+        samplePacked = PackedMove.fromMove(sampleMove);
+
+        IntMoveList pseudo = new IntMoveList();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                if (board.getPiece(r, c) == null || board.getPiece(r, c).getColor() != side)
+                    continue;
+                long targets = board.getPiece(r, c).getTargets(board);
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    pseudo.add((r * 8 + c) | (to << 6));
+                }
+            }
+        }
+        candidates = new int[pseudo.size()];
+        for (int i = 0; i < pseudo.size(); i++) {
+            candidates[i] = pseudo.get(i);
+        }
+    }
+
+    @Benchmark
+    public List<Move> getLegalMoves() {
+        return board.getLegalMoves(side);
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        board.generateLegalMoves(side, moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public int isValidMove() {
+        int valid = 0;
+        for (int candidate : candidates) {
+            int from = candidate & 63;
+            int to = candidate >>> 6;
+            if (board.isValidMove(from >>> 3, from & 7, to >>> 3, to & 7, side))
+                valid++;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return board.isInCheck(side);
+    }
+
+    @Benchmark
+    public Board cloneBoard() {
+        return board.cloneBoard();
+    }
+
+    @Benchmark
+    public boolean makeMoveUndoLastMove() {
+        boolean made = board.makeMove(sampleMove.fromRow, sampleMove.fromCol,
+                sampleMove.toRow, sampleMove.toCol, side);
+        board.undoLastMove();
+        return made;
+    }
+
+    @Benchmark
+    public long makeUnmakePacked() {
+        board.makeMove(samplePacked);
+        long key = board.hashKey();
+        board.unmakeMove(samplePacked);
+        return key;
+    }
+
+    @Benchmark
+    public Board fromFen() {
+        return Board.fromFen(fen);
+    }
+
+    @Benchmark
+    public long setFen() {
+        fenBoard.setFen(fen);
+        return fenBoard.hashKey();
+    }
+
+    @Benchmark
+    public String toFen() {
+        return board.toFen();
+    }
+}
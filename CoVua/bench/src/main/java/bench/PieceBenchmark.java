@@ -0,0 +1,74 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.Board;
+import model.Piece;
+
+// Sinh nước đi của từng loại quân: danh sách Position so với mảng int của người gọi.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceBenchmark {
+
+    @Param({ "opening", "middlegame", "endgame" })
+    public String position;
+
+    @Param({ "PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING" })
+    public String pieceType;
+
+    private Board board;
+    private Piece[] pieces;
+    private int[] buffer;
+
+    @Setup
+    public void setup() {
+        board = BenchPositions.create(position);
+        int type = List.of("PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING").indexOf(pieceType);
+
+        List<Piece> found = new ArrayList<>();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                Piece p = board.getPiece(r, c);
+                if (p != null && p.getType() == type)
+                    found.add(p);
+            }
+        }
+        pieces = found.toArray(new Piece[0]);
+        buffer = new int[Piece.MAX_TARGETS];
+    }
+
+    @Benchmark
+    public void getPossibleMoves(Blackhole bh) {
+        for (Piece p : pieces) {
+            bh.consume(p.getPossibleMoves(board));
+        }
+    }
+
+    @Benchmark
+    public int generateTargets() {
+        int total = 0;
+        for (Piece p : pieces) {
+            total += p.generateTargets(board, Piece.ALL_MOVES, buffer, 0);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,107 @@
+package model;
+
+// Bảng tấn công và tiện ích bitboard.
+// Quy ước ô: sq = row * 8 + col, bit 0 là a8 (row 0, col 0), bit 63 là h1.
+public final class Bitboards {
+
+	public static final long FILE_A = 0x0101010101010101L;
+	public static final long FILE_H = FILE_A << 7;
+	public static final long RANK_8 = 0xFFL;
+	public static final long RANK_1 = RANK_8 << 56;
+
+	public static final long[] KNIGHT_ATTACKS = new long[64];
+	public static final long[] KING_ATTACKS = new long[64];
+	public static final long[][] PAWN_ATTACKS = new long[2][64]; // [màu][ô]
+
+	// 8 hướng: 0-3 là hướng thẳng (xe), 4-7 là hướng chéo (tượng)
+	private static final int[] DIR_ROW = { -1, 1, 0, 0, -1, -1, 1, 1 };
+	private static final int[] DIR_COL = { 0, 0, -1, 1, -1, 1, -1, 1 };
+	private static final long[][] RAYS = new long[8][64];
+	private static final boolean[] POSITIVE = new boolean[8]; // hướng làm tăng chỉ số ô
+
+	static {
+		int[] knightDr = { -2, -2, -1, -1, 1, 1, 2, 2 };
+		int[] knightDc = { -1, 1, -2, 2, -2, 2, -1, 1 };
+
+		for (int d = 0; d < 8; d++) {
+			POSITIVE[d] = DIR_ROW[d] * 8 + DIR_COL[d] > 0;
+		}
+
+		for (int sq = 0; sq < 64; sq++) {
+			int row = sq >>> 3;
+			int col = sq & 7;
+
+			for (int i = 0; i < 8; i++) {
+				KNIGHT_ATTACKS[sq] |= bitIfInBounds(row + knightDr[i], col + knightDc[i]);
+				KING_ATTACKS[sq] |= bitIfInBounds(row + DIR_ROW[i], col + DIR_COL[i]);
+			}
+
+			// Tốt trắng ăn lên trên (row - 1), tốt đen ăn xuống dưới (row + 1)
+			PAWN_ATTACKS[0][sq] = bitIfInBounds(row - 1, col - 1) | bitIfInBounds(row - 1, col + 1);
+			PAWN_ATTACKS[1][sq] = bitIfInBounds(row + 1, col - 1) | bitIfInBounds(row + 1, col + 1);
+
+			for (int d = 0; d < 8; d++) {
+				int r = row + DIR_ROW[d];
+				int c = col + DIR_COL[d];
+				while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+					RAYS[d][sq] |= 1L << (r * 8 + c);
+					r += DIR_ROW[d];
+					c += DIR_COL[d];
+				}
+			}
+		}
+	}
+
+	private Bitboards() {
+	}
+
+	private static long bitIfInBounds(int row, int col) {
+		if (row < 0 || row >= 8 || col < 0 || col >= 8)
+			return 0L;
+		return 1L << (row * 8 + col);
+	}
+
+	// --- TIỆN ÍCH Ô ---
+	public static int square(int row, int col) {
+		return row * 8 + col;
+	}
+
+	public static long bit(int row, int col) {
+		return 1L << (row * 8 + col);
+	}
+
+	public static int rowOf(int sq) {
+		return sq >>> 3;
+	}
+
+	public static int colOf(int sq) {
+		return sq & 7;
+	}
+
+	// --- TẤN CÔNG QUÂN TRƯỢT ---
+	// Tia đến quân cản đầu tiên (bao gồm cả ô của quân cản)
+	private static long rayAttacks(int dir, int sq, long occupied) {
+		long attacks = RAYS[dir][sq];
+		long blockers = attacks & occupied;
+		if (blockers != 0) {
+			int blocker = POSITIVE[dir] ? Long.numberOfTrailingZeros(blockers)
+					: 63 - Long.numberOfLeadingZeros(blockers);
+			attacks ^= RAYS[dir][blocker];
+		}
+		return attacks;
+	}
+
+	public static long rookAttacks(int sq, long occupied) {
+		return rayAttacks(0, sq, occupied) | rayAttacks(1, sq, occupied)
+				| rayAttacks(2, sq, occupied) | rayAttacks(3, sq, occupied);
+	}
+
+	public static long bishopAttacks(int sq, long occupied) {
+		return rayAttacks(4, sq, occupied) | rayAttacks(5, sq, occupied)
+				| rayAttacks(6, sq, occupied) | rayAttacks(7, sq, occupied);
+	}
+
+	public static long queenAttacks(int sq, long occupied) {
+		return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+	}
+}
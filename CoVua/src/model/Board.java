@@ -1,21 +1,102 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import modelAI.IntMoveList;
 import modelAI.Move;
+import modelAI.PackedMove;
 import modelAI.Position;
 
 public class Board {
 
 	private Piece[][] board;
 	private List<Move> moveHistory;
-	private Position enPassantTarget; // Vị trí tốt có thể bắt qua đường
+	private String startFen; // FEN của thế cờ trước moveHistory, null nếu không nạp bằng setFen
+	private int enPassantSquare; // Ô của tốt có thể bị bắt qua đường, -1 nếu không có
+	private int castlingRights; // CASTLE_* (giống thứ tự KQkq của FEN)
+	private int halfmoveClock; // số nửa nước từ lần cuối đi tốt hoặc ăn quân
+	private int fullmoveNumber; // bắt đầu từ 1, tăng sau mỗi nước của đen
+
+	// Quyền nhập thành (có trong khóa Zobrist qua Zobrist.CASTLING)
+	public static final int CASTLE_WHITE_KINGSIDE = 1;
+	public static final int CASTLE_WHITE_QUEENSIDE = 2;
+	public static final int CASTLE_BLACK_KINGSIDE = 4;
+	public static final int CASTLE_BLACK_QUEENSIDE = 8;
+	public static final int CASTLE_ALL = 15;
+
+	// Quyền còn lại khi có quân đi từ hoặc đến ô sq (vua, xe rời chỗ hoặc xe bị ăn)
+	private static final int[] CASTLING_MASK = new int[64];
+
+	static {
+		Arrays.fill(CASTLING_MASK, CASTLE_ALL);
+		CASTLING_MASK[Bitboards.square(7, 4)] &= ~(CASTLE_WHITE_KINGSIDE | CASTLE_WHITE_QUEENSIDE);
+		CASTLING_MASK[Bitboards.square(7, 7)] &= ~CASTLE_WHITE_KINGSIDE;
+		CASTLING_MASK[Bitboards.square(7, 0)] &= ~CASTLE_WHITE_QUEENSIDE;
+		CASTLING_MASK[Bitboards.square(0, 4)] &= ~(CASTLE_BLACK_KINGSIDE | CASTLE_BLACK_QUEENSIDE);
+		CASTLING_MASK[Bitboards.square(0, 7)] &= ~CASTLE_BLACK_KINGSIDE;
+		CASTLING_MASK[Bitboards.square(0, 0)] &= ~CASTLE_BLACK_QUEENSIDE;
+	}
+
+	// Bitboard: mỗi loại quân của mỗi màu một long, cộng với các mặt nạ chiếm ô
+	private long[][] pieceBB; // [màu][loại quân]
+	private long[] colorBB; // [màu]
+	private long occupied;
+	private int[] kingSquare; // [màu], -1 nếu không có vua
+	private PieceColor sideToMove; // bên đi tiếp theo, suy ra từ màu quân vừa đi
+	private long hash; // khóa Zobrist, cập nhật dần trong setPiece/makeMove/unmakeMove
+	private long pawnHash; // khóa Zobrist chỉ gồm tốt, chỉ đổi khi tốt đi, bị ăn hoặc phong cấp
+
+	// Tổng vật chất + vị trí (trắng trừ đen) và giai đoạn ván cờ, cập nhật dần trong setPiece
+	private int mgScore;
+	private int egScore;
+	private int phase;
+
+	// Ngăn xếp trạng thái để hoàn tác makeMove(int) mà không tạo đối tượng
+	private Piece[] undoMoved;
+	private Piece[] undoCaptured;
+	private int[] undoEnPassant;
+	private PieceColor[] undoSideToMove;
+	private int[] undoState; // quyền nhập thành | (halfmoveClock << 4)
+	private int undoCount;
+
+	// Ngăn xếp rỗng dùng chung cho bản sao chưa đi nước nào
+	private static final Piece[] NO_PIECES = new Piece[0];
+	private static final PieceColor[] NO_COLORS = new PieceColor[0];
+	private static final int[] NO_INTS = new int[0];
 
 	public Board() {
+		this(true);
+	}
+
+	// setupDefault = false: bàn cờ trống, dùng khi nạp FEN để khỏi tạo 32 quân thừa
+	private Board(boolean setupDefault) {
 		board = new Piece[8][8];
+		pieceBB = new long[2][6];
+		colorBB = new long[2];
+		occupied = 0L;
+		kingSquare = new int[] { -1, -1 };
+		sideToMove = PieceColor.WHITE;
+		hash = 0L;
+		pawnHash = 0L;
+		mgScore = 0;
+		egScore = 0;
+		phase = 0;
 		moveHistory = new ArrayList<>();
-		enPassantTarget = null;
-		setupDefaultBoard();
+		enPassantSquare = -1;
+		castlingRights = 0;
+		halfmoveClock = 0;
+		fullmoveNumber = 1;
+		undoMoved = new Piece[256];
+		undoCaptured = new Piece[256];
+		undoEnPassant = new int[256];
+		undoSideToMove = new PieceColor[256];
+		undoState = new int[256];
+		undoCount = 0;
+		if (setupDefault) {
+			setupDefaultBoard();
+			setCastlingRights(CASTLE_ALL);
+		}
 	}
 
 	// --- KHỞI TẠO BÀN CỜ MẶC ĐỊNH ---
@@ -23,41 +104,229 @@ public class Board {
 		// Xóa tất cả quân
 		for (int r = 0; r < 8; r++) {
 			for (int c = 0; c < 8; c++) {
-				board[r][c] = null;
+				setPiece(r, c, null);
 			}
 		}
 
 		// Pawns
 		for (int c = 0; c < 8; c++) {
-			board[6][c] = new Pawn(PieceColor.WHITE, 6, c);
-			board[1][c] = new Pawn(PieceColor.BLACK, 1, c);
+			setPiece(6, c, new Pawn(PieceColor.WHITE, 6, c));
+			setPiece(1, c, new Pawn(PieceColor.BLACK, 1, c));
 		}
 
 		// Rooks
-		board[7][0] = new Rook(PieceColor.WHITE, 7, 0);
-		board[7][7] = new Rook(PieceColor.WHITE, 7, 7);
-		board[0][0] = new Rook(PieceColor.BLACK, 0, 0);
-		board[0][7] = new Rook(PieceColor.BLACK, 0, 7);
+		setPiece(7, 0, new Rook(PieceColor.WHITE, 7, 0));
+		setPiece(7, 7, new Rook(PieceColor.WHITE, 7, 7));
+		setPiece(0, 0, new Rook(PieceColor.BLACK, 0, 0));
+		setPiece(0, 7, new Rook(PieceColor.BLACK, 0, 7));
 
 		// Knights
-		board[7][1] = new Knight(PieceColor.WHITE, 7, 1);
-		board[7][6] = new Knight(PieceColor.WHITE, 7, 6);
-		board[0][1] = new Knight(PieceColor.BLACK, 0, 1);
-		board[0][6] = new Knight(PieceColor.BLACK, 0, 6);
+		setPiece(7, 1, new Knight(PieceColor.WHITE, 7, 1));
+		setPiece(7, 6, new Knight(PieceColor.WHITE, 7, 6));
+		setPiece(0, 1, new Knight(PieceColor.BLACK, 0, 1));
+		setPiece(0, 6, new Knight(PieceColor.BLACK, 0, 6));
 
 		// Bishops
-		board[7][2] = new Bishop(PieceColor.WHITE, 7, 2);
-		board[7][5] = new Bishop(PieceColor.WHITE, 7, 5);
-		board[0][2] = new Bishop(PieceColor.BLACK, 0, 2);
-		board[0][5] = new Bishop(PieceColor.BLACK, 0, 5);
+		setPiece(7, 2, new Bishop(PieceColor.WHITE, 7, 2));
+		setPiece(7, 5, new Bishop(PieceColor.WHITE, 7, 5));
+		setPiece(0, 2, new Bishop(PieceColor.BLACK, 0, 2));
+		setPiece(0, 5, new Bishop(PieceColor.BLACK, 0, 5));
 
 		// Queens
-		board[7][3] = new Queen(PieceColor.WHITE, 7, 3);
-		board[0][3] = new Queen(PieceColor.BLACK, 0, 3);
+		setPiece(7, 3, new Queen(PieceColor.WHITE, 7, 3));
+		setPiece(0, 3, new Queen(PieceColor.BLACK, 0, 3));
 
 		// Kings
-		board[7][4] = new King(PieceColor.WHITE, 7, 4);
-		board[0][4] = new King(PieceColor.BLACK, 0, 4);
+		setPiece(7, 4, new King(PieceColor.WHITE, 7, 4));
+		setPiece(0, 4, new King(PieceColor.BLACK, 0, 4));
+	}
+
+	// --- FEN ---
+	// Đọc thế cờ từ FEN. Các trường sau phần vị trí quân có thể bỏ trống
+	// (mặc định: trắng đi, không nhập thành, không bắt qua đường, 0 1).
+	public static Board fromFen(String fen) {
+		Board board = new Board(false);
+		board.setFen(fen);
+		return board;
+	}
+
+	// Nạp FEN vào bàn cờ có sẵn (xóa lịch sử nước đi), dùng lại được khi đọc hàng loạt.
+	// Duyệt từng ký tự một lần, không dùng split/regex.
+	public void setFen(String fen) {
+		clearPosition();
+
+		int n = fen.length();
+		int i = 0;
+		while (i < n && fen.charAt(i) == ' ')
+			i++;
+
+		// 1. Vị trí quân, từ hàng 8 (row 0) xuống hàng 1
+		int row = 0;
+		int col = 0;
+		for (; i < n; i++) {
+			char ch = fen.charAt(i);
+			if (ch == ' ') {
+				break;
+			} else if (ch == '/') {
+				if (col != 8 || ++row > 7)
+					throw invalidFen(fen, "sai số ô trên hàng " + (8 - row));
+				col = 0;
+			} else if (ch >= '1' && ch <= '8') {
+				col += ch - '0';
+				if (col > 8)
+					throw invalidFen(fen, "hàng " + (8 - row) + " quá 8 ô");
+			} else {
+				int type = "pnbrqk".indexOf(Character.toLowerCase(ch));
+				if (type < 0)
+					throw invalidFen(fen, "ký hiệu quân không hợp lệ '" + ch + "'");
+				if (col > 7)
+					throw invalidFen(fen, "hàng " + (8 - row) + " quá 8 ô");
+				PieceColor color = (ch < 'a') ? PieceColor.WHITE : PieceColor.BLACK;
+				setPiece(row, col, createPiece(type, color, row, col));
+				col++;
+			}
+		}
+		if (row != 7 || col != 8)
+			throw invalidFen(fen, "thiếu ô trong phần vị trí quân");
+
+		// 2. Bên đi
+		i = skipSpaces(fen, i);
+		if (i < n) {
+			char ch = fen.charAt(i++);
+			if (ch == 'b')
+				setSideToMove(PieceColor.BLACK);
+			else if (ch != 'w')
+				throw invalidFen(fen, "bên đi phải là 'w' hoặc 'b'");
+		}
+
+		// 3. Quyền nhập thành
+		i = skipSpaces(fen, i);
+		if (i < n && fen.charAt(i) == '-') {
+			i++;
+		} else {
+			int rights = 0;
+			for (; i < n && fen.charAt(i) != ' '; i++) {
+				int right = "KQkq".indexOf(fen.charAt(i));
+				if (right < 0)
+					throw invalidFen(fen, "quyền nhập thành không hợp lệ '" + fen.charAt(i) + "'");
+				rights |= 1 << right;
+			}
+			setCastlingRights(rights);
+		}
+
+		// 4. Ô bắt qua đường (ô phía sau tốt vừa đi 2 ô); Board lưu ô của chính con tốt
+		i = skipSpaces(fen, i);
+		if (i < n && fen.charAt(i) == '-') {
+			i++;
+		} else if (i + 1 < n) {
+			int targetCol = fen.charAt(i) - 'a';
+			int targetRow = '8' - fen.charAt(i + 1);
+			int expectedRow = (sideToMove == PieceColor.WHITE) ? 2 : 5;
+			if (targetCol < 0 || targetCol > 7 || targetRow != expectedRow)
+				throw invalidFen(fen, "ô bắt qua đường không hợp lệ");
+			int pawnRow = (sideToMove == PieceColor.WHITE) ? 3 : 4;
+			setEnPassantSquare(Bitboards.square(pawnRow, targetCol));
+			i += 2;
+		}
+
+		// 5-6. Bộ đếm nửa nước và số nước
+		i = skipSpaces(fen, i);
+		halfmoveClock = 0;
+		for (; i < n && fen.charAt(i) != ' '; i++) {
+			halfmoveClock = halfmoveClock * 10 + digit(fen, i);
+		}
+		i = skipSpaces(fen, i);
+		if (i < n) {
+			fullmoveNumber = 0;
+			for (; i < n && fen.charAt(i) != ' '; i++) {
+				fullmoveNumber = fullmoveNumber * 10 + digit(fen, i);
+			}
+		}
+		if (i < n && skipSpaces(fen, i) < n)
+			throw invalidFen(fen, "thừa ký tự ở cuối");
+		startFen = fen;
+	}
+
+	private static int skipSpaces(String fen, int i) {
+		while (i < fen.length() && fen.charAt(i) == ' ')
+			i++;
+		return i;
+	}
+
+	private static int digit(String fen, int i) {
+		char ch = fen.charAt(i);
+		if (ch < '0' || ch > '9')
+			throw invalidFen(fen, "bộ đếm nước không phải số");
+		return ch - '0';
+	}
+
+	private static IllegalArgumentException invalidFen(String fen, String reason) {
+		return new IllegalArgumentException("FEN không hợp lệ (" + reason + "): " + fen);
+	}
+
+	// Về bàn cờ trống, trắng đi, các bộ đếm ban đầu
+	private void clearPosition() {
+		long bb = occupied;
+		while (bb != 0) {
+			int sq = Long.numberOfTrailingZeros(bb);
+			bb &= bb - 1;
+			setPiece(Bitboards.rowOf(sq), Bitboards.colOf(sq), null);
+		}
+		setEnPassantSquare(-1);
+		setSideToMove(PieceColor.WHITE);
+		setCastlingRights(0);
+		halfmoveClock = 0;
+		fullmoveNumber = 1;
+		moveHistory.clear();
+		startFen = null;
+		Arrays.fill(undoMoved, 0, undoCount, null);
+		Arrays.fill(undoCaptured, 0, undoCount, null);
+		undoCount = 0;
+	}
+
+	public String toFen() {
+		StringBuilder sb = new StringBuilder(90);
+		for (int r = 0; r < 8; r++) {
+			int empty = 0;
+			for (int c = 0; c < 8; c++) {
+				Piece p = board[r][c];
+				if (p == null) {
+					empty++;
+					continue;
+				}
+				if (empty > 0) {
+					sb.append((char) ('0' + empty));
+					empty = 0;
+				}
+				sb.append(p.getSymbol());
+			}
+			if (empty > 0)
+				sb.append((char) ('0' + empty));
+			if (r < 7)
+				sb.append('/');
+		}
+
+		sb.append(sideToMove == PieceColor.WHITE ? " w " : " b ");
+
+		if (castlingRights == 0) {
+			sb.append('-');
+		} else {
+			for (int right = 0; right < 4; right++) {
+				if ((castlingRights & (1 << right)) != 0)
+					sb.append("KQkq".charAt(right));
+			}
+		}
+
+		sb.append(' ');
+		if (enPassantSquare < 0) {
+			sb.append('-');
+		} else {
+			int target = enPassantSquare + ((sideToMove == PieceColor.WHITE) ? -8 : 8);
+			sb.append((char) ('a' + Bitboards.colOf(target))).append((char) ('8' - Bitboards.rowOf(target)));
+		}
+
+		sb.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber);
+		return sb.toString();
 	}
 
 	// --- GETTER / SETTER ---
@@ -70,58 +339,294 @@ public class Board {
 	public void setPiece(int row, int col, Piece piece) {
 		if (!inBounds(row, col))
 			return;
+		int sq = Bitboards.square(row, col);
+		long bit = 1L << sq;
+
+		Piece old = board[row][col];
+		if (old != null) {
+			int color = old.getColor().ordinal();
+			pieceBB[color][old.getType()] &= ~bit;
+			colorBB[color] &= ~bit;
+			occupied &= ~bit;
+			hash ^= Zobrist.PIECE[color][old.getType()][sq];
+			if (old.getType() == Piece.PAWN)
+				pawnHash ^= Zobrist.PIECE[color][Piece.PAWN][sq];
+			mgScore -= PieceSquareTables.MG[color][old.getType()][sq];
+			egScore -= PieceSquareTables.EG[color][old.getType()][sq];
+			phase -= PieceSquareTables.PHASE_WEIGHTS[old.getType()];
+			if (old.getType() == Piece.KING && kingSquare[color] == sq)
+				kingSquare[color] = -1;
+		}
+
 		board[row][col] = piece;
-		if (piece != null)
+		if (piece != null) {
+			int color = piece.getColor().ordinal();
+			pieceBB[color][piece.getType()] |= bit;
+			colorBB[color] |= bit;
+			occupied |= bit;
+			hash ^= Zobrist.PIECE[color][piece.getType()][sq];
+			if (piece.getType() == Piece.PAWN)
+				pawnHash ^= Zobrist.PIECE[color][Piece.PAWN][sq];
+			mgScore += PieceSquareTables.MG[color][piece.getType()][sq];
+			egScore += PieceSquareTables.EG[color][piece.getType()][sq];
+			phase += PieceSquareTables.PHASE_WEIGHTS[piece.getType()];
+			if (piece.getType() == Piece.KING)
+				kingSquare[color] = sq;
 			piece.setPosition(row, col);
+		}
 	}
 
 	public boolean isEmpty(int row, int col) {
-		return inBounds(row, col) && board[row][col] == null;
+		return inBounds(row, col) && (occupied & Bitboards.bit(row, col)) == 0;
 	}
 
 	public boolean inBounds(int row, int col) {
 		return row >= 0 && row < 8 && col >= 0 && col < 8;
 	}
 
-	// --- TÌM VUA ---
-	public Position findKing(PieceColor color) {
-		for (int r = 0; r < 8; r++) {
-			for (int c = 0; c < 8; c++) {
-				Piece p = board[r][c];
-				if (p != null && p.getColor() == color && p instanceof King) {
-					return new Position(r, c);
+	// --- BITBOARD ---
+	public long getPieces(PieceColor color, int type) {
+		return pieceBB[color.ordinal()][type];
+	}
+
+	public long getOccupancy(PieceColor color) {
+		return colorBB[color.ordinal()];
+	}
+
+	public long getOccupied() {
+		return occupied;
+	}
+
+	public int countPieces(PieceColor color, int type) {
+		return Long.bitCount(pieceBB[color.ordinal()][type]);
+	}
+
+	// --- KHÓA ZOBRIST ---
+	public long hashKey() {
+		return hash;
+	}
+
+	public long pawnHashKey() {
+		return pawnHash;
+	}
+
+	// Tính lại khóa từ đầu (dùng để kiểm tra khi gỡ lỗi)
+	public long computeHash() {
+		long key = 0L;
+		for (int color = 0; color < 2; color++) {
+			for (int type = 0; type < 6; type++) {
+				long bb = pieceBB[color][type];
+				while (bb != 0) {
+					key ^= Zobrist.PIECE[color][type][Long.numberOfTrailingZeros(bb)];
+					bb &= bb - 1;
+				}
+			}
+		}
+		if (enPassantSquare >= 0)
+			key ^= Zobrist.EN_PASSANT[Bitboards.colOf(enPassantSquare)];
+		if (sideToMove == PieceColor.BLACK)
+			key ^= Zobrist.SIDE;
+		key ^= Zobrist.CASTLING[castlingRights];
+		return key;
+	}
+
+	public boolean verifyHash() {
+		long pawnKey = 0L;
+		for (int color = 0; color < 2; color++) {
+			long bb = pieceBB[color][Piece.PAWN];
+			while (bb != 0) {
+				pawnKey ^= Zobrist.PIECE[color][Piece.PAWN][Long.numberOfTrailingZeros(bb)];
+				bb &= bb - 1;
+			}
+		}
+		return hash == computeHash() && pawnHash == pawnKey;
+	}
+
+	// --- ĐÁNH GIÁ TĨNH ---
+	// Điểm vật chất + vị trí theo góc nhìn quân trắng, pha trộn trung cuộc/tàn cuộc
+	// theo số quân còn lại. Các tổng được giữ sẵn nên chỉ tốn O(1).
+	public int evaluateMaterial() {
+		int mgPhase = Math.min(phase, PieceSquareTables.MAX_PHASE); // phong cấp có thể vượt 24
+		return (mgScore * mgPhase + egScore * (PieceSquareTables.MAX_PHASE - mgPhase)) / PieceSquareTables.MAX_PHASE;
+	}
+
+	public int getPhase() {
+		return phase;
+	}
+
+	// Tính lại từ đầu (dùng để kiểm tra khi gỡ lỗi)
+	public boolean verifyEvaluation() {
+		int mg = 0;
+		int eg = 0;
+		int ph = 0;
+		for (int color = 0; color < 2; color++) {
+			for (int type = 0; type < 6; type++) {
+				long bb = pieceBB[color][type];
+				while (bb != 0) {
+					int sq = Long.numberOfTrailingZeros(bb);
+					mg += PieceSquareTables.MG[color][type][sq];
+					eg += PieceSquareTables.EG[color][type][sq];
+					ph += PieceSquareTables.PHASE_WEIGHTS[type];
+					bb &= bb - 1;
 				}
 			}
 		}
-		return null;
+		return mg == mgScore && eg == egScore && ph == phase;
+	}
+
+	public PieceColor getSideToMove() {
+		return sideToMove;
+	}
+
+	private void setSideToMove(PieceColor side) {
+		if (side != sideToMove)
+			hash ^= Zobrist.SIDE;
+		sideToMove = side;
+	}
+
+	private void setCastlingRights(int rights) {
+		hash ^= Zobrist.CASTLING[castlingRights] ^ Zobrist.CASTLING[rights];
+		castlingRights = rights;
+	}
+
+	private void setEnPassantSquare(int sq) {
+		if (enPassantSquare >= 0)
+			hash ^= Zobrist.EN_PASSANT[Bitboards.colOf(enPassantSquare)];
+		enPassantSquare = sq;
+		if (sq >= 0)
+			hash ^= Zobrist.EN_PASSANT[Bitboards.colOf(sq)];
+	}
+
+	// --- TÌM VUA ---
+	// Ô của vua được cập nhật trong setPiece nên tra cứu là O(1)
+	public int getKingSquare(PieceColor color) {
+		return kingSquare[color.ordinal()];
+	}
+
+	public Position findKing(PieceColor color) {
+		int sq = kingSquare[color.ordinal()];
+		if (sq < 0)
+			return null;
+		return new Position(Bitboards.rowOf(sq), Bitboards.colOf(sq));
 	}
 
 	// --- KIỂM TRA CHIẾU ---
 	public boolean isInCheck(PieceColor kingColor) {
-		Position kingPos = findKing(kingColor);
-		if (kingPos == null)
+		int kingSq = kingSquare[kingColor.ordinal()];
+		if (kingSq < 0)
 			return false;
 
 		PieceColor opponentColor = (kingColor == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
 
 		// Kiểm tra xem có quân đối phương nào tấn công được vua không
-		for (int r = 0; r < 8; r++) {
-			for (int c = 0; c < 8; c++) {
-				Piece p = board[r][c];
-				if (p != null && p.getColor() == opponentColor) {
-					List<Position> moves = p.getPossibleMoves(this);
-					for (Position move : moves) {
-						if (move.row == kingPos.row && move.col == kingPos.col) {
-							return true;
-						}
-					}
-				}
+		return isSquareAttacked(kingSq, opponentColor);
+	}
+
+	// --- KIỂM TRA Ô BỊ TẤN CÔNG ---
+	// Nhìn ngược từ ô cần kiểm tra: nếu đặt một quân loại X ở ô này mà nó "thấy"
+	// được quân X của bên tấn công thì ô đó bị tấn công. Dừng ngay ở quân đầu tiên.
+	public boolean isSquareAttacked(int square, PieceColor byColor) {
+		long[] attackers = pieceBB[byColor.ordinal()];
+		int defender = byColor.ordinal() ^ 1;
+
+		// Tốt, mã, vua: tra bảng
+		if ((Bitboards.PAWN_ATTACKS[defender][square] & attackers[Piece.PAWN]) != 0)
+			return true;
+		if ((Bitboards.KNIGHT_ATTACKS[square] & attackers[Piece.KNIGHT]) != 0)
+			return true;
+		if ((Bitboards.KING_ATTACKS[square] & attackers[Piece.KING]) != 0)
+			return true;
+
+		// Xe/hậu theo hàng và cột
+		long rooksQueens = attackers[Piece.ROOK] | attackers[Piece.QUEEN];
+		if (rooksQueens != 0 && (Bitboards.rookAttacks(square, occupied) & rooksQueens) != 0)
+			return true;
+
+		// Tượng/hậu theo đường chéo
+		long bishopsQueens = attackers[Piece.BISHOP] | attackers[Piece.QUEEN];
+		return bishopsQueens != 0 && (Bitboards.bishopAttacks(square, occupied) & bishopsQueens) != 0;
+	}
+
+	// --- TRAO ĐỔI TĨNH (SEE) ---
+	// Giá trị quân dùng cho SEE, vua lớn hơn mọi tổng trao đổi
+	private static final int[] SEE_VALUES = { 100, 320, 330, 500, 900, 20000 };
+	private final int[] seeGain = new int[32]; // danh sách lợi thế theo lượt ăn, dùng lại giữa các lần gọi
+
+	// Tất cả quân (cả hai màu) tấn công ô square với mặt nạ chiếm ô occ
+	private long attackersTo(int square, long occ) {
+		long[] white = pieceBB[0];
+		long[] black = pieceBB[1];
+		long rooksQueens = white[Piece.ROOK] | white[Piece.QUEEN] | black[Piece.ROOK] | black[Piece.QUEEN];
+		long bishopsQueens = white[Piece.BISHOP] | white[Piece.QUEEN] | black[Piece.BISHOP] | black[Piece.QUEEN];
+
+		return (Bitboards.PAWN_ATTACKS[1][square] & white[Piece.PAWN])
+				| (Bitboards.PAWN_ATTACKS[0][square] & black[Piece.PAWN])
+				| (Bitboards.KNIGHT_ATTACKS[square] & (white[Piece.KNIGHT] | black[Piece.KNIGHT]))
+				| (Bitboards.KING_ATTACKS[square] & (white[Piece.KING] | black[Piece.KING]))
+				| (Bitboards.rookAttacks(square, occ) & rooksQueens)
+				| (Bitboards.bishopAttacks(square, occ) & bishopsQueens);
+	}
+
+	// Kết quả vật chất (centipawn, theo bên đi) của chuỗi ăn quân trên ô đến của move,
+	// khi mỗi bên luôn ăn lại bằng quân rẻ nhất và được dừng bất cứ lúc nào.
+	// Chỉ dùng bitboard, không đi nước nào; quân trượt phía sau được lộ ra khi bỏ quân
+	// phía trước khỏi occ (x-ray).
+	public int see(int move) {
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		int[] gain = seeGain;
+		int depth = 0;
+
+		long occ = occupied ^ (1L << from);
+		int attackerValue = SEE_VALUES[PackedMove.movedType(move)];
+		gain[0] = PackedMove.isCapture(move) ? SEE_VALUES[PackedMove.capturedType(move)] : 0;
+		if (PackedMove.isEnPassant(move)) {
+			occ ^= 1L << enPassantSquare;
+		}
+		if (PackedMove.promotion(move) != 0) {
+			gain[0] += SEE_VALUES[PackedMove.promotion(move)] - SEE_VALUES[Piece.PAWN];
+			attackerValue = SEE_VALUES[PackedMove.promotion(move)];
+		}
+
+		int side = (colorBB[0] & (1L << from)) != 0 ? 1 : 0; // bên ăn lại tiếp theo
+		long attackers = attackersTo(to, occ) & occ;
+
+		while (true) {
+			long own = attackers & colorBB[side];
+			if (own == 0)
+				break;
+
+			// Quân rẻ nhất của bên này
+			int type = Piece.PAWN;
+			long candidates = own & pieceBB[side][type];
+			while (candidates == 0) {
+				candidates = own & pieceBB[side][++type];
 			}
+			// Vua không được ăn vào ô còn bị đối phương tấn công
+			if (type == Piece.KING && (attackers & colorBB[side ^ 1]) != 0)
+				break;
+
+			depth++;
+			gain[depth] = attackerValue - gain[depth - 1];
+			if (Math.max(-gain[depth - 1], gain[depth]) < 0)
+				break; // cả hai lựa chọn đều không cải thiện được kết quả
+
+			occ ^= Long.lowestOneBit(candidates);
+			attackers = attackersTo(to, occ) & occ;
+			attackerValue = SEE_VALUES[type];
+			side ^= 1;
 		}
-		return false;
+
+		while (depth > 0) {
+			gain[depth - 1] = -Math.max(-gain[depth - 1], gain[depth]);
+			depth--;
+		}
+		return gain[0];
 	}
 
 	// --- KIỂM TRA NƯỚC ĐI HỢP LỆ ---
+	// Không thay đổi bàn cờ. Ngoài các nước đi thường, nhập thành và bắt qua đường hợp lệ
+	// cũng trả về true; kết quả của mọi nước đi khác giữ nguyên như trước.
 	public boolean isValidMove(int fromRow, int fromCol, int toRow, int toCol, PieceColor playerColor) {
 		// 1. Kiểm tra ô bắt đầu có quân không
 		Piece piece = getPiece(fromRow, fromCol);
@@ -140,77 +645,247 @@ public class Board {
 			return false; // Không thể ăn quân của mình
 		}
 
-		// 4. Kiểm tra nước đi có trong danh sách nước đi có thể của quân không
-		List<Position> possibleMoves = piece.getPossibleMoves(this);
-		boolean moveFound = false;
-		for (Position pos : possibleMoves) {
-			if (pos.row == toRow && pos.col == toCol) {
-				moveFound = true;
-				break;
-			}
-		}
-
-		if (!moveFound) {
+		// 4. Kiểm tra ô đích có trong bitboard nước đi có thể của quân không
+		if (!inBounds(toRow, toCol) || (piece.getTargets(this) & Bitboards.bit(toRow, toCol)) == 0) {
 			return false; // Nước đi không hợp lệ theo luật di chuyển
 		}
 
-		// 5. Tạo bản sao bàn cờ để thử nghiệm
-		Board tempBoard = this.cloneBoard();
-		Piece tempPiece = tempBoard.getPiece(fromRow, fromCol);
-		Piece capturedPiece = tempBoard.getPiece(toRow, toCol);
-
-		// Thực hiện nước đi trên bản sao
-		Move tempMove = new Move(fromRow, fromCol, toRow, toCol, tempPiece, capturedPiece);
-		tempBoard.applyMove(tempMove);
-
-		// 6. Kiểm tra sau khi đi, vua có bị chiếu không
-		if (tempBoard.isInCheck(playerColor)) {
+		// 5. Kiểm tra sau khi đi, vua có bị chiếu không
+		if (leavesKingInCheck(fromRow, fromCol, toRow, toCol, piece, targetPiece)) {
 			return false; // Nước đi này để vua bị chiếu -> không hợp lệ
 		}
 
 		return true; // Tất cả điều kiện đều thỏa mãn
 	}
 
+	// Kiểm tra trên bitboard, không đụng tới bàn cờ: vua còn bị tấn công sau nước đi không
+	private boolean leavesKingInCheck(int fromRow, int fromCol, int toRow, int toCol, Piece piece, Piece targetPiece) {
+		int color = piece.getColor().ordinal();
+		long fromBit = Bitboards.bit(fromRow, fromCol);
+		long toBit = Bitboards.bit(toRow, toCol);
+		long removed = toBit; // quân đối phương bị ăn
+
+		// Tốt đi chéo vào ô trống là bắt qua đường: tốt bị bắt đứng cạnh ô đi
+		if (targetPiece == null && fromCol != toCol && piece.getType() == Piece.PAWN)
+			removed = Bitboards.bit(fromRow, toCol);
+
+		long occ = (occupied & ~fromBit & ~removed) | toBit;
+		int kingSq = (piece.getType() == Piece.KING) ? Bitboards.square(toRow, toCol) : kingSquare[color];
+		if (kingSq < 0)
+			return false;
+		return isSquareAttacked(kingSq, color ^ 1, occ, ~removed);
+	}
+
+	// Như isSquareAttacked nhưng với mặt nạ chiếm ô occ và chỉ tính quân tấn công trong alive
+	private boolean isSquareAttacked(int square, int byColor, long occ, long alive) {
+		long[] attackers = pieceBB[byColor];
+		if ((Bitboards.PAWN_ATTACKS[byColor ^ 1][square] & attackers[Piece.PAWN] & alive) != 0)
+			return true;
+		if ((Bitboards.KNIGHT_ATTACKS[square] & attackers[Piece.KNIGHT] & alive) != 0)
+			return true;
+		if ((Bitboards.KING_ATTACKS[square] & attackers[Piece.KING]) != 0)
+			return true;
+		long rooksQueens = (attackers[Piece.ROOK] | attackers[Piece.QUEEN]) & alive;
+		if (rooksQueens != 0 && (Bitboards.rookAttacks(square, occ) & rooksQueens) != 0)
+			return true;
+		long bishopsQueens = (attackers[Piece.BISHOP] | attackers[Piece.QUEEN]) & alive;
+		return bishopsQueens != 0 && (Bitboards.bishopAttacks(square, occ) & bishopsQueens) != 0;
+	}
+
+	// --- NHẬP THÀNH ---
+	// Ô đến của vua khi nhập thành được: còn quyền, vua và xe ở ô ban đầu, các ô giữa
+	// trống, vua không bị chiếu và không đi qua hay đến ô bị tấn công
+	long castlingTargets(PieceColor side) {
+		int color = side.ordinal();
+		int rights = (castlingRights >>> (2 * color)) & 3; // bit 0: cánh vua, bit 1: cánh hậu
+		int row = (side == PieceColor.WHITE) ? 7 : 0;
+		int kingSq = Bitboards.square(row, 4);
+		if (rights == 0 || kingSquare[color] != kingSq)
+			return 0L;
+
+		PieceColor opponent = (side == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+		if (isSquareAttacked(kingSq, opponent))
+			return 0L;
+
+		long rooks = pieceBB[color][Piece.ROOK];
+		long targets = 0L;
+		if ((rights & 1) != 0 && (rooks & (1L << (kingSq + 3))) != 0
+				&& (occupied & (3L << (kingSq + 1))) == 0
+				&& !isSquareAttacked(kingSq + 1, opponent) && !isSquareAttacked(kingSq + 2, opponent)) {
+			targets |= 1L << (kingSq + 2);
+		}
+		if ((rights & 2) != 0 && (rooks & (1L << (kingSq - 4))) != 0
+				&& (occupied & (7L << (kingSq - 3))) == 0
+				&& !isSquareAttacked(kingSq - 1, opponent) && !isSquareAttacked(kingSq - 2, opponent)) {
+			targets |= 1L << (kingSq - 2);
+		}
+		return targets;
+	}
+
 	// --- THỰC HIỆN NƯỚC ĐI ---
+	// Tốt lên hàng cuối được phong hậu
 	public boolean makeMove(int fromRow, int fromCol, int toRow, int toCol, PieceColor playerColor) {
+		return makeMove(fromRow, fromCol, toRow, toCol, playerColor, 0);
+	}
+
+	// promotion: quân phong cấp (Piece.KNIGHT..QUEEN) khi tốt lên hàng cuối, 0 = hậu;
+	// bỏ qua với nước không phong cấp
+	public boolean makeMove(int fromRow, int fromCol, int toRow, int toCol, PieceColor playerColor, int promotion) {
 		if (!isValidMove(fromRow, fromCol, toRow, toCol, playerColor)) {
 			return false; // Nước đi không hợp lệ
 		}
+		if (promotion != 0 && (promotion < Piece.KNIGHT || promotion > Piece.QUEEN)) {
+			return false;
+		}
 
 		Piece piece = getPiece(fromRow, fromCol);
 		Piece capturedPiece = getPiece(toRow, toCol);
 
 		// Lưu lại nước đi
 		Move move = new Move(fromRow, fromCol, toRow, toCol, piece, capturedPiece);
-		applyMove(move);
+		move.promotion = promotion;
+		makeMove(PackedMove.fromMove(move));
 		moveHistory.add(move);
 
-		// Xử lý đặc biệt cho tốt
-		if (piece instanceof Pawn) {
-			// Phong cấp
-			int promotionRow = (piece.getColor() == PieceColor.WHITE) ? 0 : 7;
-			if (toRow == promotionRow) {
-				board[toRow][toCol] = new Queen(piece.getColor(), toRow, toCol);
-			}
+		return true;
+	}
 
-			// Bắt tốt qua đường (En Passant)
-			if (Math.abs(fromRow - toRow) == 2) {
-				// Tốt đi 2 ô, đánh dấu vị trí có thể bắt qua đường
-				enPassantTarget = new Position(toRow, toCol);
-			} else {
-				enPassantTarget = null;
-			}
+	// --- THỰC HIỆN / HOÀN TÁC NƯỚC ĐI NÉN (không kiểm tra hợp lệ) ---
+	public void makeMove(int move) {
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		int fromRow = Bitboards.rowOf(from), fromCol = Bitboards.colOf(from);
+		int toRow = Bitboards.rowOf(to), toCol = Bitboards.colOf(to);
+		Piece piece = board[fromRow][fromCol];
+
+		// Lưu trạng thái để hoàn tác
+		if (undoCount == undoMoved.length) {
+			growUndoStack();
+		}
+		undoMoved[undoCount] = piece;
+		undoCaptured[undoCount] = board[toRow][toCol];
+		undoEnPassant[undoCount] = enPassantSquare;
+		undoSideToMove[undoCount] = sideToMove;
+		undoState[undoCount] = castlingRights | (halfmoveClock << 4);
+
+		// Bắt tốt qua đường: tốt bị bắt đứng cạnh ô đi, không phải ở ô đến
+		if (PackedMove.isEnPassant(move)) {
+			undoCaptured[undoCount] = board[fromRow][toCol];
+			setPiece(fromRow, toCol, null);
+		}
+		boolean capture = undoCaptured[undoCount] != null;
+		undoCount++;
+
+		setPiece(toRow, toCol, piece);
+		setPiece(fromRow, fromCol, null);
+
+		// Phong cấp
+		int promotion = PackedMove.promotion(move);
+		if (promotion != 0) {
+			setPiece(toRow, toCol, createPiece(promotion, piece.getColor(), toRow, toCol));
+		}
+
+		// Bắt tốt qua đường (En Passant): tốt đi 2 ô, đánh dấu vị trí có thể bắt qua đường
+		if (piece.getType() == Piece.PAWN && Math.abs(fromRow - toRow) == 2) {
+			setEnPassantSquare(to);
 		} else {
-			enPassantTarget = null;
+			setEnPassantSquare(-1);
 		}
 
-		// Xử lý nhập thành (chưa triển khai đầy đủ)
-		if (piece instanceof King && Math.abs(fromCol - toCol) == 2) {
-			// Đây là nhập thành
+		// Nhập thành
+		if (PackedMove.isCastle(move)) {
 			handleCastling(fromRow, fromCol, toRow, toCol);
 		}
 
-		return true;
+		// Quyền nhập thành và bộ đếm nước
+		setCastlingRights(castlingRights & CASTLING_MASK[from] & CASTLING_MASK[to]);
+		halfmoveClock = (capture || piece.getType() == Piece.PAWN) ? 0 : halfmoveClock + 1;
+		if (piece.getColor() == PieceColor.BLACK)
+			fullmoveNumber++;
+
+		// Đổi lượt: bên đi tiếp là đối phương của quân vừa đi
+		setSideToMove((piece.getColor() == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE);
+	}
+
+	public void unmakeMove(int move) {
+		int from = PackedMove.from(move);
+		int to = PackedMove.to(move);
+		undoCount--;
+
+		if (PackedMove.isCastle(move)) {
+			undoCastling(Bitboards.rowOf(from), Bitboards.colOf(to));
+		}
+
+		setPiece(Bitboards.rowOf(from), Bitboards.colOf(from), undoMoved[undoCount]);
+		if (PackedMove.isEnPassant(move)) {
+			setPiece(Bitboards.rowOf(to), Bitboards.colOf(to), null);
+			setPiece(Bitboards.rowOf(from), Bitboards.colOf(to), undoCaptured[undoCount]);
+		} else {
+			setPiece(Bitboards.rowOf(to), Bitboards.colOf(to), undoCaptured[undoCount]);
+		}
+		setEnPassantSquare(undoEnPassant[undoCount]);
+		setSideToMove(undoSideToMove[undoCount]);
+		restoreState(undoState[undoCount]);
+		if (sideToMove == PieceColor.BLACK)
+			fullmoveNumber--;
+
+		undoMoved[undoCount] = null;
+		undoCaptured[undoCount] = null;
+	}
+
+	// --- NƯỚC ĐI RỖNG (cho cắt tỉa null move) ---
+	// Chỉ đổi lượt và xóa ô bắt tốt qua đường, khóa Zobrist cập nhật theo
+	public void makeNullMove() {
+		if (undoCount == undoMoved.length) {
+			growUndoStack();
+		}
+		undoMoved[undoCount] = null;
+		undoCaptured[undoCount] = null;
+		undoEnPassant[undoCount] = enPassantSquare;
+		undoSideToMove[undoCount] = sideToMove;
+		undoState[undoCount] = castlingRights | (halfmoveClock << 4);
+		undoCount++;
+
+		setEnPassantSquare(-1);
+		setSideToMove((sideToMove == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE);
+	}
+
+	public void undoNullMove() {
+		undoCount--;
+		setEnPassantSquare(undoEnPassant[undoCount]);
+		setSideToMove(undoSideToMove[undoCount]);
+		restoreState(undoState[undoCount]);
+	}
+
+	private void restoreState(int state) {
+		setCastlingRights(state & CASTLE_ALL);
+		halfmoveClock = state >>> 4;
+	}
+
+	private void growUndoStack() {
+		int capacity = Math.max(64, undoMoved.length * 2);
+		undoMoved = Arrays.copyOf(undoMoved, capacity);
+		undoCaptured = Arrays.copyOf(undoCaptured, capacity);
+		undoEnPassant = Arrays.copyOf(undoEnPassant, capacity);
+		undoSideToMove = Arrays.copyOf(undoSideToMove, capacity);
+		undoState = Arrays.copyOf(undoState, capacity);
+	}
+
+	private static Piece createPiece(int type, PieceColor color, int row, int col) {
+		switch (type) {
+		case Piece.PAWN:
+			return new Pawn(color, row, col);
+		case Piece.KNIGHT:
+			return new Knight(color, row, col);
+		case Piece.BISHOP:
+			return new Bishop(color, row, col);
+		case Piece.ROOK:
+			return new Rook(color, row, col);
+		case Piece.QUEEN:
+			return new Queen(color, row, col);
+		default:
+			return new King(color, row, col);
+		}
 	}
 
 	// --- XỬ LÝ NHẬP THÀNH ---
@@ -220,9 +895,8 @@ public class Board {
 			// Di chuyển xe từ (fromRow, 7) sang (fromRow, 5)
 			Piece rook = getPiece(fromRow, 7);
 			if (rook != null && rook instanceof Rook) {
-				board[fromRow][5] = rook;
-				board[fromRow][7] = null;
-				rook.setPosition(fromRow, 5);
+				setPiece(fromRow, 5, rook);
+				setPiece(fromRow, 7, null);
 			}
 		}
 		// Nhập thành dài (queenside)
@@ -230,13 +904,22 @@ public class Board {
 			// Di chuyển xe từ (fromRow, 0) sang (fromRow, 3)
 			Piece rook = getPiece(fromRow, 0);
 			if (rook != null && rook instanceof Rook) {
-				board[fromRow][3] = rook;
-				board[fromRow][0] = null;
-				rook.setPosition(fromRow, 3);
+				setPiece(fromRow, 3, rook);
+				setPiece(fromRow, 0, null);
 			}
 		}
 	}
 
+	private void undoCastling(int row, int kingToCol) {
+		int rookFrom = (kingToCol == 6) ? 7 : 0;
+		int rookTo = (kingToCol == 6) ? 5 : 3;
+		Piece rook = getPiece(row, rookTo);
+		if (rook != null && rook instanceof Rook) {
+			setPiece(row, rookFrom, rook);
+			setPiece(row, rookTo, null);
+		}
+	}
+
 	// --- UNDO NƯỚC ĐI CUỐI ---
 	public boolean undoLastMove() {
 		if (moveHistory.isEmpty()) {
@@ -244,30 +927,64 @@ public class Board {
 		}
 
 		Move lastMove = moveHistory.remove(moveHistory.size() - 1);
-		undoMove(lastMove);
+		unmakeMove(PackedMove.fromMove(lastMove));
 		return true;
 	}
 
 	// --- LẤY TẤT CẢ NƯỚC ĐI HỢP LỆ CỦA 1 BÊN ---
 	public List<Move> getLegalMoves(PieceColor side) {
-		List<Move> legalMoves = new ArrayList<>();
+		IntMoveList packed = new IntMoveList();
+		generateLegalMoves(side, packed);
 
-		for (int r = 0; r < 8; r++) {
-			for (int c = 0; c < 8; c++) {
-				Piece p = board[r][c];
-				if (p != null && p.getColor() == side) {
-					List<Position> positions = p.getPossibleMoves(this);
-					for (Position pos : positions) {
-						if (isValidMove(r, c, pos.row, pos.col, side)) {
-							Piece captured = getPiece(pos.row, pos.col);
-							legalMoves.add(new Move(r, c, pos.row, pos.col, p, captured));
-						}
+		// Một mục cho mỗi cặp ô đi/đến: phong cấp chỉ giữ hậu, giống makeMove theo tọa độ
+		List<Move> legalMoves = new ArrayList<>(packed.size());
+		for (int i = 0; i < packed.size(); i++) {
+			int move = packed.get(i);
+			int promotion = PackedMove.promotion(move);
+			if (promotion != 0 && promotion != Piece.QUEEN)
+				continue;
+			legalMoves.add(PackedMove.toMove(move, this));
+		}
+		return legalMoves;
+	}
+
+	// Sinh nước đi hợp lệ dạng nén vào danh sách của người gọi (xóa nội dung cũ)
+	public void generateLegalMoves(PieceColor side, IntMoveList out) {
+		generateLegalMoves(side, Piece.ALL_MOVES, out);
+	}
+
+	// mode: Piece.ALL_MOVES, Piece.CAPTURES hoặc Piece.QUIETS
+	public void generateLegalMoves(PieceColor side, int mode, IntMoveList out) {
+		out.clear();
+
+		// Duyệt các quân của bên đi theo thứ tự ô, rồi các ô đích trong bitboard
+		long pieces = colorBB[side.ordinal()];
+		while (pieces != 0) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			int r = Bitboards.rowOf(from);
+			int c = Bitboards.colOf(from);
+			Piece p = board[r][c];
+
+			long targets = p.getTargets(this, mode);
+			while (targets != 0) {
+				int to = Long.numberOfTrailingZeros(targets);
+				targets &= targets - 1;
+				int toRow = Bitboards.rowOf(to);
+				int toCol = Bitboards.colOf(to);
+				Piece captured = board[toRow][toCol];
+				if (!leavesKingInCheck(r, c, toRow, toCol, p, captured)) {
+					int move = PackedMove.of(from, to, p, captured);
+					out.add(move);
+					// Phong cấp: hậu trước, sau đó các quân phong cấp dưới
+					if (PackedMove.promotion(move) != 0) {
+						out.add(PackedMove.withPromotion(move, Piece.ROOK));
+						out.add(PackedMove.withPromotion(move, Piece.BISHOP));
+						out.add(PackedMove.withPromotion(move, Piece.KNIGHT));
 					}
 				}
 			}
 		}
-
-		return legalMoves;
 	}
 
 	// --- KIỂM TRA CHIẾU HẾT ---
@@ -307,22 +1024,46 @@ public class Board {
 	}
 
 	// --- CLONE BÀN CỜ ---
+	// Bản sao độc lập (mỗi luồng tìm kiếm dùng một bản), không gồm lịch sử nước đi
 	public Board cloneBoard() {
-		Board copy = new Board();
-		copy.board = new Piece[8][8];
+		return new Board(this);
+	}
 
-		for (int r = 0; r < 8; r++) {
-			for (int c = 0; c < 8; c++) {
-				Piece p = board[r][c];
-				if (p != null)
-					copy.board[r][c] = p.clonePiece();
-			}
+	// Chỉ sao chép bitboard và các giá trị đơn. Quân cờ vẫn phải tạo mới vì mỗi Piece giữ
+	// ô của nó và setPiece dời quân, nhưng chỉ duyệt các ô có quân. Ngăn xếp hoàn tác để
+	// trống, growUndoStack cấp phát ở nước đi đầu tiên.
+	private Board(Board other) {
+		board = new Piece[8][8];
+		for (long bb = other.occupied; bb != 0; bb &= bb - 1) {
+			int sq = Long.numberOfTrailingZeros(bb);
+			board[sq >>> 3][sq & 7] = other.board[sq >>> 3][sq & 7].clonePiece();
 		}
 
-		copy.enPassantTarget = (enPassantTarget != null) ? new Position(enPassantTarget.row, enPassantTarget.col)
-				: null;
+		pieceBB = new long[2][];
+		pieceBB[0] = other.pieceBB[0].clone();
+		pieceBB[1] = other.pieceBB[1].clone();
+		colorBB = other.colorBB.clone();
+		occupied = other.occupied;
+		kingSquare = other.kingSquare.clone();
+
+		sideToMove = other.sideToMove;
+		hash = other.hash;
+		pawnHash = other.pawnHash;
+		mgScore = other.mgScore;
+		egScore = other.egScore;
+		phase = other.phase;
+		moveHistory = new ArrayList<>();
+		enPassantSquare = other.enPassantSquare;
+		castlingRights = other.castlingRights;
+		halfmoveClock = other.halfmoveClock;
+		fullmoveNumber = other.fullmoveNumber;
 
-		return copy;
+		undoMoved = NO_PIECES;
+		undoCaptured = NO_PIECES;
+		undoEnPassant = NO_INTS;
+		undoSideToMove = NO_COLORS;
+		undoState = NO_INTS;
+		undoCount = 0;
 	}
 
 	// --- IN BÀN CỜ ---
@@ -349,7 +1090,31 @@ public class Board {
 		return new ArrayList<>(moveHistory);
 	}
 
+	// Thế cờ trước nước đầu tiên trong getMoveHistory(), null nếu là thế cờ ban đầu
+	public String getStartFen() {
+		return startFen;
+	}
+
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+
+	public int getHalfmoveClock() {
+		return halfmoveClock;
+	}
+
+	public int getFullmoveNumber() {
+		return fullmoveNumber;
+	}
+
+	// Ô của tốt vừa đi 2 ô (không phải ô đến khi bắt qua đường), -1 nếu không có
+	public int getEnPassantSquare() {
+		return enPassantSquare;
+	}
+
 	public Position getEnPassantTarget() {
-		return enPassantTarget;
+		if (enPassantSquare < 0)
+			return null;
+		return new Position(Bitboards.rowOf(enPassantSquare), Bitboards.colOf(enPassantSquare));
 	}
 }
\ No newline at end of file
@@ -1,8 +1,4 @@
 package model;
-import java.util.ArrayList;
-import java.util.List;
-
-import modelAI.Position;
 
 public class King extends Piece {
 
@@ -16,25 +12,14 @@ public class King extends Piece {
     }
 
     @Override
-    public List<Position> getPossibleMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-
-        int[] dr = {-1, -1, -1, 0, 1, 1, 1, 0};
-        int[] dc = {-1, 0, 1, 1, 1, 0, -1, -1};
-
-        for (int i = 0; i < 8; i++) {
-            int r = row + dr[i];
-            int c = col + dc[i];
-            if (inBounds(r, c)) {
-                Piece target = board.getPiece(r, c);
-                if (target == null || target.getColor() != this.color) {
-                    moves.add(new Position(r, c));
-                }
-            }
-        }
+    public int getType() {
+        return KING;
+    }
 
-        // Castling có thể xử lý thêm ở Game nếu muốn
-        return moves;
+    @Override
+    public long getTargets(Board board) {
+        return (Bitboards.KING_ATTACKS[Bitboards.square(row, col)] & ~board.getOccupancy(color))
+                | board.castlingTargets(color);
     }
 
 	@Override
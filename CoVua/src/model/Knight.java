@@ -1,8 +1,4 @@
 package model;
-import java.util.ArrayList;
-import java.util.List;
-
-import modelAI.Position;
 
 public class Knight extends Piece {
 
@@ -16,24 +12,13 @@ public class Knight extends Piece {
     }
 
     @Override
-    public List<Position> getPossibleMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-
-        int[] dr = {-2, -2, -1, -1, 1, 1, 2, 2};
-        int[] dc = {-1, 1, -2, 2, -2, 2, -1, 1};
-
-        for (int i = 0; i < 8; i++) {
-            int r = row + dr[i];
-            int c = col + dc[i];
-            if (inBounds(r, c)) {
-                Piece target = board.getPiece(r, c);
-                if (target == null || target.getColor() != this.color) {
-                    moves.add(new Position(r, c));
-                }
-            }
-        }
+    public int getType() {
+        return KNIGHT;
+    }
 
-        return moves;
+    @Override
+    public long getTargets(Board board) {
+        return Bitboards.KNIGHT_ATTACKS[Bitboards.square(row, col)] & ~board.getOccupancy(color);
     }
 
 	@Override
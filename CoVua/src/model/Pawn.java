@@ -1,10 +1,5 @@
 package model;
 
-import java.util.ArrayList;
-import java.util.List;
-
-import modelAI.Position;
-
 public class Pawn extends Piece{
 
 	public Pawn(PieceColor color, int row, int col) {
@@ -12,43 +7,58 @@ public class Pawn extends Piece{
 	}
 
 	@Override
-	 public List<Position> getPossibleMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-        int direction = (color == PieceColor.WHITE) ? -1 : 1; // trắng đi lên, đen đi xuống
-
-        int nextRow = row + direction;
-
-        // 1. Đi thẳng 1 ô
-        if (inBounds(nextRow, col) && board.isEmpty(nextRow, col)) {
-            moves.add(new Position(nextRow, col));
-
-            // 2. Đi thẳng 2 ô nếu chưa đi
-            int startRow = (color == PieceColor.WHITE) ? 6 : 1;
-            int nextRow2 = row + 2 * direction;
-            if (row == startRow && board.isEmpty(nextRow2, col)) {
-                moves.add(new Position(nextRow2, col));
-            }
-        }
-
-        // 3. Ăn chéo
-        int[] dc = {-1, 1};
-        for (int d : dc) {
-            int newCol = col + d;
-            if (inBounds(nextRow, newCol)) {
-                Piece target = board.getPiece(nextRow, newCol);
-                if (target != null && target.getColor() != this.color) {
-                    moves.add(new Position(nextRow, newCol));
-                }
-            }
-        }
-
-        return moves;
-    }
+	public char getSymbol() {
+		return color == PieceColor.WHITE ? 'P' : 'p';
+	}
 
+	@Override
+	public int getType() {
+		return PAWN;
+	}
 
 	@Override
-	public char getSymbol() {
-		return color == PieceColor.WHITE ? 'P' : 'p';
+	public long getTargets(Board board) {
+		int sq = Bitboards.square(row, col);
+		long empty = ~board.getOccupied();
+		long pushes;
+
+		if (color == PieceColor.WHITE) {
+			pushes = (1L << sq >>> 8) & empty;
+			if (row == 6) {
+				pushes |= (pushes >>> 8) & empty; // đi 2 ô từ hàng xuất phát
+			}
+		} else {
+			pushes = (1L << sq << 8) & empty;
+			if (row == 1) {
+				pushes |= (pushes << 8) & empty;
+			}
+		}
+
+		PieceColor opponent = (color == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+		long captures = Bitboards.PAWN_ATTACKS[color.ordinal()][sq] & board.getOccupancy(opponent);
+		return pushes | captures | enPassantTarget(board);
+	}
+
+	// Bắt qua đường ăn vào ô trống nên lọc theo chế độ riêng
+	@Override
+	public long getTargets(Board board, int mode) {
+		long targets = super.getTargets(board, mode);
+		if (mode == CAPTURES)
+			targets |= enPassantTarget(board);
+		else if (mode == QUIETS)
+			targets &= ~enPassantTarget(board);
+		return targets;
+	}
+
+	// Ô đến khi bắt qua đường tốt đối phương vừa đi 2 ô đứng ngay cạnh, 0 nếu không có
+	private long enPassantTarget(Board board) {
+		int ep = board.getEnPassantSquare();
+		if (ep < 0 || Bitboards.rowOf(ep) != row || Math.abs(Bitboards.colOf(ep) - col) != 1)
+			return 0L;
+		PieceColor opponent = (color == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+		if ((board.getPieces(opponent, PAWN) & (1L << ep)) == 0)
+			return 0L;
+		return 1L << ((color == PieceColor.WHITE) ? ep - 8 : ep + 8);
 	}
 
 	@Override
@@ -1,9 +1,26 @@
 package model;
+import java.util.ArrayList;
 import java.util.List;
 
 import modelAI.Position;
 
 public abstract class Piece {
+    // Chỉ số loại quân, dùng làm chỉ số bitboard trong Board
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    // Chế độ sinh nước đi
+    public static final int ALL_MOVES = 0;
+    public static final int CAPTURES = 1; // chỉ nước ăn quân
+    public static final int QUIETS = 2; // chỉ nước không ăn quân
+
+    // Số ô đích tối đa của một quân (hậu ở giữa bàn cờ trống)
+    public static final int MAX_TARGETS = 27;
+
     protected PieceColor color;
     protected int row;
     protected int col;
@@ -31,8 +48,47 @@ public abstract class Piece {
         this.col = col;
     }
 
-    // Mỗi quân cờ phải tự định nghĩa nước đi
-    public abstract List<Position> getPossibleMoves(Board board);
+    // Mỗi quân cờ phải tự định nghĩa ô đích dạng bitboard
+    // (không gồm ô có quân cùng màu)
+    public abstract long getTargets(Board board);
+
+    // Bitboard ô đích lọc theo chế độ ALL_MOVES / CAPTURES / QUIETS
+    public long getTargets(Board board, int mode) {
+        long targets = getTargets(board);
+        if (mode == ALL_MOVES)
+            return targets;
+
+        PieceColor opponent = (color == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+        long enemies = board.getOccupancy(opponent);
+        return (mode == CAPTURES) ? targets & enemies : targets & ~enemies;
+    }
+
+    // Ghi chỉ số các ô đích (row * 8 + col) vào mảng của người gọi, bắt đầu từ offset.
+    // Trả về số ô đã ghi; mảng cần còn chỗ cho MAX_TARGETS phần tử.
+    public int generateTargets(Board board, int mode, int[] buffer, int offset) {
+        long targets = getTargets(board, mode);
+        int n = offset;
+        while (targets != 0) {
+            buffer[n++] = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+        }
+        return n - offset;
+    }
+
+    // Danh sách nước đi dạng Position (giữ lại cho giao diện)
+    public List<Position> getPossibleMoves(Board board) {
+        int[] buffer = new int[MAX_TARGETS];
+        int count = generateTargets(board, ALL_MOVES, buffer, 0);
+
+        List<Position> moves = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            moves.add(new Position(buffer[i] >>> 3, buffer[i] & 7));
+        }
+        return moves;
+    }
+
+    // Loại quân (PAWN, KNIGHT, ...)
+    public abstract int getType();
 
     // Lấy ký tự hiển thị ('K','Q','R','B','N','P')
     public abstract char getSymbol();
@@ -1,8 +1,4 @@
 package model;
-import java.util.ArrayList;
-import java.util.List;
-
-import modelAI.Position;
 
 public class Queen extends Piece {
 
@@ -16,32 +12,14 @@ public class Queen extends Piece {
     }
 
     @Override
-    public List<Position> getPossibleMoves(Board board) {
-        List<Position> moves = new ArrayList<>();
-
-        // Kết hợp 8 hướng: Rook + Bishop
-        int[] dr = {-1, -1, -1, 0, 1, 1, 1, 0};
-        int[] dc = {-1, 0, 1, 1, 1, 0, -1, -1};
-
-        for (int i = 0; i < 8; i++) {
-            int r = row + dr[i];
-            int c = col + dc[i];
-
-            while (inBounds(r, c)) {
-                if (board.isEmpty(r, c)) {
-                    moves.add(new Position(r, c));
-                } else {
-                    if (board.getPiece(r, c).getColor() != this.color) {
-                        moves.add(new Position(r, c)); // ăn quân đối phương
-                    }
-                    break;
-                }
-                r += dr[i];
-                c += dc[i];
-            }
-        }
+    public int getType() {
+        return QUEEN;
+    }
 
-        return moves;
+    @Override
+    public long getTargets(Board board) {
+        long attacks = Bitboards.queenAttacks(Bitboards.square(row, col), board.getOccupied());
+        return attacks & ~board.getOccupancy(color);
     }
 
 	@Override
@@ -0,0 +1,45 @@
+package model;
+
+// Khóa Zobrist 64 bit cho Board. Các số ngẫu nhiên sinh từ seed cố định
+// (splitmix64) nên khóa của cùng một thế cờ giống nhau giữa các lần chạy.
+public final class Zobrist {
+
+	public static final long[][][] PIECE = new long[2][6][64]; // [màu][loại quân][ô]
+	public static final long[] EN_PASSANT = new long[8]; // theo cột
+	public static final long SIDE; // XOR khi đến lượt đen
+	public static final long[] CASTLING = new long[16]; // theo tổ hợp quyền nhập thành Board.CASTLE_*
+
+	private static long seed = 0x2545F4914F6CDD1DL;
+
+	static {
+		for (int color = 0; color < 2; color++) {
+			for (int type = 0; type < 6; type++) {
+				for (int sq = 0; sq < 64; sq++) {
+					PIECE[color][type][sq] = next();
+				}
+			}
+		}
+		for (int file = 0; file < 8; file++) {
+			EN_PASSANT[file] = next();
+		}
+		SIDE = next();
+		// Mỗi quyền một số, khóa của tổ hợp là XOR các quyền (CASTLING[0] = 0)
+		long[] rights = { next(), next(), next(), next() };
+		for (int mask = 1; mask < 16; mask++) {
+			for (int i = 0; i < 4; i++) {
+				if ((mask & (1 << i)) != 0)
+					CASTLING[mask] ^= rights[i];
+			}
+		}
+	}
+
+	private Zobrist() {
+	}
+
+	private static long next() {
+		long z = (seed += 0x9E3779B97F4A7C15L);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
@@ -0,0 +1,83 @@
+package modelAI;
+
+import model.Bitboards;
+import model.Board;
+import model.Piece;
+import model.PieceColor;
+import model.PieceSquareTables;
+
+// Hàm đánh giá tĩnh: điểm theo góc nhìn của bên đang đi (centipawn).
+// Gồm vật chất + vị trí quân (giữ sẵn trong Board), cấu trúc tốt và che chắn vua.
+public final class Evaluator {
+
+    // Giá trị quân theo chỉ số loại quân của Piece (dùng cho sắp xếp và cắt tỉa)
+    public static final int[] PIECE_VALUES = { 100, 320, 330, 500, 900, 0 };
+
+    // Che chắn vua ở trung cuộc: tốt ngay trước vua và cách vua một hàng
+    private static final int SHIELD_NEAR = 10;
+    private static final int SHIELD_FAR = 5;
+    private static final long[][] SHIELD_NEAR_MASKS = new long[2][64];
+    private static final long[][] SHIELD_FAR_MASKS = new long[2][64];
+
+    static {
+        for (int sq = 0; sq < 64; sq++) {
+            int row = Bitboards.rowOf(sq);
+            int col = Bitboards.colOf(sq);
+            for (int c = Math.max(0, col - 1); c <= Math.min(7, col + 1); c++) {
+                if (row >= 1)
+                    SHIELD_NEAR_MASKS[0][sq] |= Bitboards.bit(row - 1, c);
+                if (row >= 2)
+                    SHIELD_FAR_MASKS[0][sq] |= Bitboards.bit(row - 2, c);
+                if (row <= 6)
+                    SHIELD_NEAR_MASKS[1][sq] |= Bitboards.bit(row + 1, c);
+                if (row <= 5)
+                    SHIELD_FAR_MASKS[1][sq] |= Bitboards.bit(row + 2, c);
+            }
+        }
+    }
+
+    private Evaluator() {
+    }
+
+    // Vật chất + bảng vị trí quân do Board giữ sẵn (O(1))
+    public static int evaluate(Board board) {
+        return evaluate(board, null);
+    }
+
+    // pawns: bảng đệm cấu trúc tốt, null thì tính trực tiếp
+    public static int evaluate(Board board, PawnTable pawns) {
+        int score = board.evaluateMaterial();
+
+        if (pawns != null) {
+            score += pawns.probe(board);
+        } else {
+            long white = board.getPieces(PieceColor.WHITE, Piece.PAWN);
+            long black = board.getPieces(PieceColor.BLACK, Piece.PAWN);
+            score += taper(PawnTable.evaluate(white, black, 0, true) - PawnTable.evaluate(black, white, 1, true),
+                    PawnTable.evaluate(white, black, 0, false) - PawnTable.evaluate(black, white, 1, false),
+                    board.getPhase());
+        }
+
+        // Phụ thuộc vị trí vua nên không nằm trong bảng đệm tốt
+        int shield = kingShield(board, PieceColor.WHITE) - kingShield(board, PieceColor.BLACK);
+        score += taper(shield, 0, board.getPhase());
+
+        return board.getSideToMove() == PieceColor.WHITE ? score : -score;
+    }
+
+    private static int kingShield(Board board, PieceColor color) {
+        int kingSq = board.getKingSquare(color);
+        if (kingSq < 0)
+            return 0;
+        int c = color.ordinal();
+        long pawns = board.getPieces(color, Piece.PAWN);
+        return SHIELD_NEAR * Long.bitCount(pawns & SHIELD_NEAR_MASKS[c][kingSq])
+                + SHIELD_FAR * Long.bitCount(pawns & SHIELD_FAR_MASKS[c][kingSq]);
+    }
+
+    // Pha trộn điểm trung cuộc/tàn cuộc theo giai đoạn (0 = tàn cuộc, 24 = đủ quân)
+    static int taper(int mg, int eg, int phase) {
+        int mgPhase = Math.min(phase, PieceSquareTables.MAX_PHASE);
+        return (mg * mgPhase + eg * (PieceSquareTables.MAX_PHASE - mgPhase)) / PieceSquareTables.MAX_PHASE;
+    }
+}
@@ -0,0 +1,31 @@
+package modelAI;
+
+// Thống kê một nước đi trong OpeningExplorer: số ván trắng thắng / hòa / đen thắng sau
+// khi đi nước đó từ thế cờ được tra.
+public class ExplorerMove {
+    public final int move; // PackedMove hợp lệ trong thế cờ được tra
+    public final long whiteWins;
+    public final long draws;
+    public final long blackWins;
+
+    public ExplorerMove(int move, long whiteWins, long draws, long blackWins) {
+        this.move = move;
+        this.whiteWins = whiteWins;
+        this.draws = draws;
+        this.blackWins = blackWins;
+    }
+
+    public long games() {
+        return whiteWins + draws + blackWins;
+    }
+
+    // Điểm trung bình của trắng (thắng 1, hòa 0.5)
+    public double whiteScore() {
+        return (games() == 0) ? 0.5 : (whiteWins + 0.5 * draws) / games();
+    }
+
+    @Override
+    public String toString() {
+        return PackedMove.toString(move) + " games " + games() + " +" + whiteWins + " =" + draws + " -" + blackWins;
+    }
+}
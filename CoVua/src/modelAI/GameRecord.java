@@ -0,0 +1,126 @@
+package modelAI;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import model.Board;
+import model.Piece;
+import model.PieceColor;
+
+// Định dạng nhị phân lưu ván cờ (tệp .cvgr), dùng chung cho GameRecordWriter / GameRecordReader.
+//
+// Đầu tệp 16 byte (little-endian): magic "CVGR", phiên bản, kiểu mã hóa nước đi, dự phòng.
+// Sau đó các ván nối tiếp nhau, mỗi ván:
+//  u16 số nửa nước | u8 kết quả (PgnGame.*) | u8 cờ (FLAG_FEN)
+//  [u8 độ dài + FEN ASCII nếu có FLAG_FEN, ngược lại bắt đầu từ thế cờ ban đầu]
+//  các nước đi, mỗi nước theo kiểu mã hóa của tệp:
+//   ENCODING_INDEX : 1 byte, vị trí trong danh sách nước hợp lệ sắp theo khóa (ô đi, ô đến,
+//                    phong cấp) - gọn nhất nhưng phải sinh nước đi khi đọc
+//   ENCODING_PACKED: 2 byte, ô đi | ô đến << 6 | phong cấp << 12 - đọc không cần sinh nước đi
+final class GameRecord {
+    static final int MAGIC = 0x52475643; // "CVGR"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    static final int ENCODING_INDEX = 0;
+    static final int ENCODING_PACKED = 1;
+
+    static final int FLAG_FEN = 1;
+    static final int MAX_PLIES = 0xFFFF;
+    static final int MAX_FEN_BYTES = 0xFF;
+    static final int RECORD_HEADER_BYTES = 4;
+    // Bản ghi lớn nhất có thể: đầu bản ghi + FEN + mọi nước đi 2 byte
+    static final int MAX_RECORD_BYTES = RECORD_HEADER_BYTES + 1 + MAX_FEN_BYTES + 2 * MAX_PLIES;
+
+    private static final int KEY_MASK = 0x7FFF; // ô đi, ô đến, phong cấp (PackedMove.toShort bỏ cờ ăn quân)
+
+    private final IntMoveList legal = new IntMoveList();
+    private final int[] keys = new int[256];
+
+    static int bytesPerMove(int encoding) {
+        return (encoding == ENCODING_INDEX) ? 1 : 2;
+    }
+
+    // --- ĐẦU TỆP ---
+    // u32 magic | u16 phiên bản | u8 kiểu mã hóa | 9 byte dự phòng
+    static void writeHeader(ByteBuffer buf, int encoding) {
+        buf.putInt(MAGIC).putShort((short) VERSION).put((byte) encoding);
+        for (int i = 7; i < HEADER_BYTES; i++) {
+            buf.put((byte) 0);
+        }
+    }
+
+    // Kiểu mã hóa ghi trong đầu tệp (buf little-endian, đọc từ vị trí 0)
+    static int readHeader(ByteBuffer buf) throws IOException {
+        if (buf.limit() < HEADER_BYTES || buf.getInt(0) != MAGIC)
+            throw new IOException("Không phải tệp ván cờ CVGR");
+        int version = buf.getShort(4) & 0xFFFF;
+        if (version != VERSION)
+            throw new IOException("Phiên bản tệp CVGR không hỗ trợ: " + version);
+        int encoding = buf.get(6);
+        if (encoding != ENCODING_INDEX && encoding != ENCODING_PACKED)
+            throw new IOException("Kiểu mã hóa nước đi không hợp lệ: " + encoding);
+        return encoding;
+    }
+
+    // --- MÃ HÓA ---
+    // Mã của move trong thế cờ hiện tại của board (gọi trước khi đi nước đó)
+    int encode(int move, Board board, int encoding) {
+        int key = PackedMove.toShort(move) & KEY_MASK;
+        if (encoding == ENCODING_PACKED)
+            return key;
+        int count = sortedKeys(board);
+        int index = Arrays.binarySearch(keys, 0, count, key);
+        if (index < 0)
+            throw new IllegalArgumentException("Nước đi không hợp lệ: " + PackedMove.toString(move));
+        return index;
+    }
+
+    // Nước đi (PackedMove đầy đủ) từ mã, NONE nếu mã không ứng với nước hợp lệ nào
+    int decode(int code, Board board, int encoding) {
+        if (encoding == ENCODING_INDEX) {
+            int count = sortedKeys(board);
+            if (code >= count)
+                return PackedMove.NONE;
+            code = keys[code];
+        }
+
+        int from = code & 0x3F;
+        int to = (code >>> 6) & 0x3F;
+        int promotion = code >>> 12;
+        if (encoding == ENCODING_INDEX) {
+            for (int i = 0; i < legal.size(); i++) {
+                if ((PackedMove.toShort(legal.get(i)) & KEY_MASK) == code)
+                    return legal.get(i);
+            }
+            return PackedMove.NONE;
+        }
+
+        // Dựng lại cờ ăn quân / bắt qua đường / nhập thành từ bàn cờ, chỉ kiểm tra một nước
+        // thay vì sinh mọi nước đi
+        PieceColor side = board.getSideToMove();
+        Piece moved = board.getPiece(from >>> 3, from & 7);
+        if (moved == null || moved.getColor() != side
+                || !board.isValidMove(from >>> 3, from & 7, to >>> 3, to & 7, side))
+            return PackedMove.NONE;
+        int move = PackedMove.of(from, to, moved, board.getPiece(to >>> 3, to & 7));
+        if (promotion != 0) {
+            if (PackedMove.promotion(move) == 0)
+                return PackedMove.NONE;
+            move = PackedMove.withPromotion(move, promotion);
+        }
+        return move;
+    }
+
+    // Khóa của các nước hợp lệ, tăng dần, trong keys[0, count)
+    private int sortedKeys(Board board) {
+        board.generateLegalMoves(board.getSideToMove(), legal);
+        int count = legal.size();
+        for (int i = 0; i < count; i++) {
+            keys[i] = PackedMove.toShort(legal.get(i)) & KEY_MASK;
+        }
+        Arrays.sort(keys, 0, count);
+        return count;
+    }
+}
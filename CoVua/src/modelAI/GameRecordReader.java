@@ -0,0 +1,214 @@
+package modelAI;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import model.Board;
+import model.PieceColor;
+
+// Đọc tệp CVGR (xem GameRecord) qua ánh xạ bộ nhớ: đi thẳng tới một ván bất kỳ theo vị
+// trí byte do GameRecordWriter.append trả về, hoặc duyệt lần lượt bằng firstOffset /
+// nextOffset. Tệp được ánh xạ thành các vùng 1 GB chồng lên nhau một bản ghi lớn nhất
+// nên mỗi ván nằm trọn trong một vùng (đọc được tệp lớn hơn 2 GB).
+//
+// Chỉ thấy các ván đã có trong tệp lúc open. Mỗi luồng dùng một GameRecordReader riêng.
+//
+// Cách chạy: java modelAI.GameRecordReader <tệp .cvgr> [vị trí ván]
+public final class GameRecordReader implements AutoCloseable {
+    private static final long REGION_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+    private final long size;
+    private final int encoding;
+    private final GameRecord codec = new GameRecord();
+
+    private GameRecordReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        int count = (int) Math.max(1, (size + REGION_BYTES - 1) / REGION_BYTES);
+        regions = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long start = i * REGION_BYTES;
+            long end = Math.min(size, start + REGION_BYTES + GameRecord.MAX_RECORD_BYTES);
+            regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            regions[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        encoding = GameRecord.readHeader(regions[0]);
+    }
+
+    public static GameRecordReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new GameRecordReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // --- DUYỆT ---
+    public int getEncoding() {
+        return encoding;
+    }
+
+    // Vị trí ván đầu tiên; bằng endOffset() nếu tệp chưa có ván nào
+    public long firstOffset() {
+        return GameRecord.HEADER_BYTES;
+    }
+
+    public long endOffset() {
+        return size;
+    }
+
+    // Vị trí ván ngay sau ván ở offset
+    public long nextOffset(long offset) throws IOException {
+        return offset + recordBytes(offset);
+    }
+
+    // --- ĐẦU BẢN GHI ---
+    public int plyCount(long offset) throws IOException {
+        check(offset, GameRecord.RECORD_HEADER_BYTES);
+        return getShort(offset) & 0xFFFF;
+    }
+
+    public int result(long offset) throws IOException {
+        check(offset, GameRecord.RECORD_HEADER_BYTES);
+        return getByte(offset + 2);
+    }
+
+    // FEN thế cờ bắt đầu, null nếu ván bắt đầu từ thế cờ ban đầu
+    public String startFen(long offset) throws IOException {
+        check(offset, GameRecord.RECORD_HEADER_BYTES);
+        if ((getByte(offset + 3) & GameRecord.FLAG_FEN) == 0)
+            return null;
+        check(offset, GameRecord.RECORD_HEADER_BYTES + 1);
+        int length = getByte(offset + GameRecord.RECORD_HEADER_BYTES);
+        check(offset, GameRecord.RECORD_HEADER_BYTES + 1 + length);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) getByte(offset + GameRecord.RECORD_HEADER_BYTES + 1 + i);
+        }
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    // --- ĐỌC VÁN ---
+    // Nạp thế cờ bắt đầu vào board, giải mã và đi lần lượt các nước (ghi vào moves nếu khác
+    // null). Trả về vị trí ván kế tiếp.
+    public long read(long offset, Board board, IntMoveList moves) throws IOException {
+        int length = recordBytes(offset);
+        String fen = startFen(offset);
+        try {
+            board.setFen(fen != null ? fen : PgnReader.START_FEN);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Ván ở byte " + offset + ": " + e.getMessage());
+        }
+        if (moves != null)
+            moves.clear();
+
+        int plies = plyCount(offset);
+        int step = GameRecord.bytesPerMove(encoding);
+        long pos = offset + length - (long) plies * step;
+        for (int i = 0; i < plies; i++, pos += step) {
+            int code = (step == 1) ? getByte(pos) : getShort(pos) & 0xFFFF;
+            int move = codec.decode(code, board, encoding);
+            if (move == PackedMove.NONE)
+                throw new IOException("Ván ở byte " + offset + ": nước thứ " + (i + 1) + " không hợp lệ");
+            board.makeMove(move);
+            if (moves != null)
+                moves.add(move);
+        }
+        return offset + length;
+    }
+
+    // Độ dài bản ghi ở offset, kiểm tra bản ghi nằm trọn trong tệp
+    private int recordBytes(long offset) throws IOException {
+        check(offset, GameRecord.RECORD_HEADER_BYTES);
+        int plies = getShort(offset) & 0xFFFF;
+        int length = GameRecord.RECORD_HEADER_BYTES;
+        if ((getByte(offset + 3) & GameRecord.FLAG_FEN) != 0) {
+            check(offset, length + 1);
+            length += 1 + getByte(offset + length);
+        }
+        length += plies * GameRecord.bytesPerMove(encoding);
+        check(offset, length);
+        return length;
+    }
+
+    private void check(long offset, int length) throws IOException {
+        if (offset < GameRecord.HEADER_BYTES || offset >= size)
+            throw new IOException("Vị trí ván không hợp lệ: " + offset);
+        if (offset + length > size)
+            throw new IOException("Ván ở byte " + offset + " bị cắt cụt");
+    }
+
+    // Vùng chứa offset chứa luôn cả bản ghi bắt đầu tại đó
+    private int getByte(long pos) {
+        return regions[(int) (pos / REGION_BYTES)].get((int) (pos % REGION_BYTES)) & 0xFF;
+    }
+
+    private int getShort(long pos) {
+        return regions[(int) (pos / REGION_BYTES)].getShort((int) (pos % REGION_BYTES));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --- DÒNG LỆNH ---
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Cách dùng: GameRecordReader <tệp .cvgr> [vị trí ván]");
+            return;
+        }
+        Board board = new Board();
+        IntMoveList moves = new IntMoveList();
+        try (GameRecordReader reader = open(Paths.get(args[0]))) {
+            if (args.length > 1) {
+                printGame(reader, Long.parseLong(args[1]), board, moves);
+                return;
+            }
+
+            long games = 0;
+            long plies = 0;
+            long start = System.nanoTime();
+            for (long offset = reader.firstOffset(); offset < reader.endOffset(); games++) {
+                offset = reader.read(offset, board, moves);
+                plies += moves.size();
+            }
+            double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+            System.out.printf("%d ván, %d nửa nước, %d byte (%.2f byte/nửa nước), %.2f s (%.0f ván/giây)%n",
+                    games, plies, reader.endOffset(), reader.endOffset() / (double) Math.max(1, plies),
+                    seconds, games / seconds);
+        }
+    }
+
+    // In một ván theo ký hiệu SAN
+    private static void printGame(GameRecordReader reader, long offset, Board board, IntMoveList moves)
+            throws IOException {
+        reader.read(offset, board, moves);
+        String fen = reader.startFen(offset);
+        board.setFen(fen != null ? fen : PgnReader.START_FEN);
+        if (fen != null)
+            System.out.println("[FEN \"" + fen + "\"]");
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < moves.size(); i++) {
+            if (board.getSideToMove() == PieceColor.WHITE || i == 0) {
+                sb.append(board.getFullmoveNumber())
+                        .append(board.getSideToMove() == PieceColor.WHITE ? ". " : "... ");
+            }
+            sb.append(San.toString(moves.get(i), board)).append(' ');
+            board.makeMove(moves.get(i));
+        }
+        String[] results = { "*", "1-0", "0-1", "1/2-1/2" };
+        System.out.println(sb.append(results[reader.result(offset) & 3]));
+    }
+}
@@ -0,0 +1,191 @@
+package modelAI;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import model.Board;
+
+// Ghi ván cờ vào tệp CVGR (xem GameRecord), chỉ nối thêm vào cuối tệp. Mỗi lần append
+// trả về vị trí byte của ván để sau này GameRecordReader đọc lại trực tiếp.
+//
+// Các bản ghi được gom trong bộ đệm và chỉ ghi xuống đĩa khi đầy, khi flush hoặc close;
+// ván chưa flush sẽ mất nếu chương trình dừng đột ngột. Có thể gọi append từ nhiều luồng.
+//
+// Cách chạy (chuyển PGN sang CVGR): java modelAI.GameRecordWriter <tệp .pgn> <tệp .cvgr> [--packed]
+public final class GameRecordWriter implements AutoCloseable {
+    public static final int ENCODING_INDEX = GameRecord.ENCODING_INDEX;
+    public static final int ENCODING_PACKED = GameRecord.ENCODING_PACKED;
+
+    private static final int BUFFER_BYTES = 4 * GameRecord.MAX_RECORD_BYTES;
+
+    private final FileChannel channel;
+    private final int encoding;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private final GameRecord codec = new GameRecord();
+    private final Board board = new Board();
+    private long flushed; // vị trí cuối phần đã ghi xuống đĩa
+
+    private GameRecordWriter(FileChannel channel, int encoding, long size) {
+        this.channel = channel;
+        this.encoding = encoding;
+        this.flushed = size;
+    }
+
+    // --- MỞ TỆP ---
+    // Tạo tệp mới với kiểu mã hóa encoding, hoặc mở tệp có sẵn để ghi tiếp (kiểu mã hóa
+    // phải trùng với tệp)
+    public static GameRecordWriter open(Path file, int encoding) throws IOException {
+        if (encoding != ENCODING_INDEX && encoding != ENCODING_PACKED)
+            throw new IllegalArgumentException("Kiểu mã hóa không hợp lệ: " + encoding);
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(GameRecord.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            long size = channel.size();
+            if (size == 0) {
+                GameRecord.writeHeader(header, encoding);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                size = GameRecord.HEADER_BYTES;
+            } else {
+                channel.read(header, 0);
+                header.flip();
+                int existing = GameRecord.readHeader(header);
+                if (existing != encoding)
+                    throw new IOException("Tệp " + file + " dùng kiểu mã hóa khác (" + existing + ")");
+            }
+            return new GameRecordWriter(channel, encoding, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // --- GHI VÁN ---
+    // Ghi ván bắt đầu từ startFen (null = thế cờ ban đầu) gồm các nước moves (PackedMove)
+    // với kết quả result (PgnGame.*). Trả về vị trí byte của ván trong tệp.
+    public synchronized long append(String startFen, IntMoveList moves, int result) throws IOException {
+        if (startFen != null && startFen.equals(PgnReader.START_FEN))
+            startFen = null;
+        byte[] fen = (startFen != null) ? startFen.getBytes(StandardCharsets.US_ASCII) : null;
+        int plies = moves.size();
+        if (plies > GameRecord.MAX_PLIES)
+            throw new IllegalArgumentException("Ván quá dài: " + plies + " nửa nước");
+        if (fen != null && fen.length > GameRecord.MAX_FEN_BYTES)
+            throw new IllegalArgumentException("FEN quá dài: " + startFen);
+        if (result < PgnGame.RESULT_NONE || result > PgnGame.DRAW)
+            throw new IllegalArgumentException("Kết quả không hợp lệ: " + result);
+
+        if (buffer.remaining() < GameRecord.MAX_RECORD_BYTES)
+            flush();
+        long offset = flushed + buffer.position();
+        int start = buffer.position();
+
+        buffer.putShort((short) plies).put((byte) result).put((byte) (fen != null ? GameRecord.FLAG_FEN : 0));
+        if (fen != null) {
+            buffer.put((byte) fen.length).put(fen);
+        }
+        try {
+            if (encoding == ENCODING_PACKED) {
+                // Mã đóng gói không phụ thuộc thế cờ nên không cần đi lại ván
+                for (int i = 0; i < plies; i++) {
+                    buffer.putShort((short) codec.encode(moves.get(i), board, encoding));
+                }
+            } else {
+                board.setFen(startFen != null ? startFen : PgnReader.START_FEN);
+                for (int i = 0; i < plies; i++) {
+                    int move = moves.get(i);
+                    buffer.put((byte) codec.encode(move, board, encoding));
+                    board.makeMove(move);
+                }
+            }
+        } catch (RuntimeException e) {
+            buffer.position(start); // bỏ bản ghi dở dang
+            throw e;
+        }
+        return offset;
+    }
+
+    // Ván của PgnReader (chỉ các nước trước lỗi đầu tiên nếu ván có lỗi)
+    public long append(PgnGame game) throws IOException {
+        return append(game.getBoard().getStartFen(), game.getMoves(), game.getResult());
+    }
+
+    // Các nước đã đi trên board (Board.getMoveHistory) kể từ thế cờ bắt đầu
+    public long append(Board board, int result) throws IOException {
+        List<Move> history = board.getMoveHistory();
+        IntMoveList moves = new IntMoveList();
+        for (Move m : history) {
+            moves.add(PackedMove.fromMove(m));
+        }
+        return append(board.getStartFen(), moves, result);
+    }
+
+    // --- GHI XUỐNG ĐĨA ---
+    public synchronized void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushed += channel.write(buffer, flushed);
+        }
+        buffer.clear();
+    }
+
+    // Kích thước tệp kể cả phần còn trong bộ đệm
+    public synchronized long size() {
+        return flushed + buffer.position();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // --- DÒNG LỆNH ---
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Cách dùng: GameRecordWriter <tệp .pgn> <tệp .cvgr> [--packed]");
+            return;
+        }
+        int encoding = (args.length > 2 && args[2].equals("--packed")) ? ENCODING_PACKED : ENCODING_INDEX;
+        Path pgn = Paths.get(args[0]);
+        Path out = Paths.get(args[1]);
+
+        long[] counts = new long[2]; // ván đã ghi, ván lỗi bị bỏ qua
+        long start = System.nanoTime();
+        long before;
+        long after;
+        try (GameRecordWriter writer = open(out, encoding)) {
+            before = writer.size();
+            PgnReader.read(pgn, game -> {
+                if (game.hasError()) {
+                    counts[1]++;
+                    return;
+                }
+                try {
+                    writer.append(game);
+                    counts[0]++;
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            after = writer.size();
+        }
+        double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        System.out.printf("%d ván (%d ván lỗi bỏ qua), %d byte, %.2f s (%.0f ván/giây)%n",
+                counts[0], counts[1], after - before, seconds, counts[0] / seconds);
+    }
+}
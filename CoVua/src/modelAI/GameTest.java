@@ -1,6 +1,7 @@
 package modelAI;
 
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
 
 import model.Board;
@@ -12,6 +13,11 @@ public class GameTest {
     private boolean gameOver;
     private Scanner scanner;
     private String winner;
+    private TranspositionTable transpositionTable; // tạo khi máy đi lần đầu
+    private PawnTable pawnTable; // như bảng chuyển vị, dùng lại giữa các nước
+    private PolyglotBook book = PolyglotBook.openDefault(); // -Dcovua.book=<tệp .bin>
+    private Tablebase tablebase = Tablebase.openDefault(); // -Dcovua.tablebases=<thư mục>
+    private Random random = new Random();
     
     public GameTest() {
         board = new Board();
@@ -27,6 +33,9 @@ public class GameTest {
         System.out.println("Các lệnh đặc biệt:");
         System.out.println("  - 'undo': hoàn tác nước đi cuối");
         System.out.println("  - 'moves': xem các nước đi hợp lệ");
+        System.out.println("  - 'perft N': đếm số nút đến độ sâu N từ thế cờ hiện tại");
+        System.out.println("  - 'ai': để máy đi thay bên hiện tại");
+        System.out.println("  - 'stats': số liệu tìm kiếm của máy (nút/giây, bảng chuyển vị, ...)");
         System.out.println("  - 'quit': thoát game");
         System.out.println("  - 'resign': đầu hàng");
         System.out.println();
@@ -56,9 +65,18 @@ public class GameTest {
                 showLegalMoves();
                 continue;
             }
+            else if (input.toLowerCase().startsWith("perft")) {
+                runPerft(input);
+                continue;
+            }
+            else if (input.equalsIgnoreCase("stats")) {
+                System.out.println(SearchTelemetry.get().formatLine());
+                continue;
+            }
             
-            // Xử lý nước đi
-            if (processMove(input)) {
+            // Xử lý nước đi (của người hoặc của máy)
+            boolean moved = input.equalsIgnoreCase("ai") ? computerMove() : processMove(input);
+            if (moved) {
                 // Kiểm tra kết thúc trò chơi
                 checkGameEnd();
                 
@@ -101,6 +119,33 @@ public class GameTest {
         }
     }
     
+    private boolean computerMove() {
+        // Thế cờ có trong sách khai cuộc: đi ngay, không cần tìm kiếm
+        int bookMove = (book != null) ? book.probe(board, random) : PackedMove.NONE;
+        if (bookMove != PackedMove.NONE) {
+            System.out.println("Máy đi: " + PackedMove.toString(bookMove) + " (sách khai cuộc)");
+            int from = PackedMove.from(bookMove);
+            int to = PackedMove.to(bookMove);
+            return board.makeMove(from / 8, from % 8, to / 8, to % 8, currentPlayer);
+        }
+        
+        if (transpositionTable == null) {
+            transpositionTable = new TranspositionTable(64);
+            pawnTable = new PawnTable(PawnTable.DEFAULT_ENTRIES);
+        }
+        Search search = new Search(board, transpositionTable, pawnTable);
+        search.setTablebase(tablebase);
+        SearchResult result = search.search(new SearchLimits(6, 0, 1000));
+        if (!result.hasMove()) {
+            return false;
+        }
+        
+        System.out.println("Máy đi: " + PackedMove.toString(result.bestMove) + " (" + result + ")");
+        int from = PackedMove.from(result.bestMove);
+        int to = PackedMove.to(result.bestMove);
+        return board.makeMove(from / 8, from % 8, to / 8, to % 8, currentPlayer);
+    }
+    
     private int convertColumn(char colChar) {
         char lower = Character.toLowerCase(colChar);
         if (lower < 'a' || lower > 'h') {
@@ -166,6 +211,23 @@ public class GameTest {
         System.out.println();
     }
     
+    private void runPerft(String input) {
+        String[] parts = input.trim().split("\\s+");
+        int depth;
+        try {
+            depth = (parts.length > 1) ? Integer.parseInt(parts[1]) : 3;
+        } catch (NumberFormatException e) {
+            System.out.println("Độ sâu không hợp lệ: " + parts[1]);
+            return;
+        }
+
+        long start = System.nanoTime();
+        long nodes = new Perft(board).divide(depth);
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        System.out.printf("perft(%d) = %d  (%.3f s, %.0f nút/giây)%n",
+            depth, nodes, elapsed / 1e9, nodes * 1e9 / elapsed);
+    }
+    
     private void printGameState() {
         System.out.println("\n" + "=".repeat(40));
         System.out.println("Lượt: " + currentPlayer);
@@ -265,6 +327,22 @@ public class GameTest {
         System.out.println("\n3. Test chiếu hết nhanh:");
         testScholarMate();
         
+        // Test 4: Khóa Zobrist (gồm quyền nhập thành) cập nhật dần khớp với tính lại từ đầu
+        System.out.println("\n4. Test khóa Zobrist:");
+        testZobrist();
+        
+        // Test 5: Perft trên các thế cờ chuẩn (nhập thành, bắt qua đường, phong cấp, ghim)
+        System.out.println("\n5. Test perft các thế cờ chuẩn:");
+        testPerft();
+        
+        // Test 6: Khóa Polyglot với bảng Random64 có sẵn khớp các khóa mẫu của đặc tả
+        System.out.println("\n6. Test khóa sách Polyglot:");
+        testPolyglotKeys();
+        
+        // Test 7: Các luật PgnReader cần (nhập thành, bắt qua đường, phong cấp dưới) qua SAN
+        System.out.println("\n7. Test luật đặc biệt qua SAN:");
+        testSanRules();
+        
         System.out.println("\n=== TESTS COMPLETED ===");
     }
     
@@ -282,4 +360,110 @@ public class GameTest {
         
         System.out.println("   Chiếu hết? " + board.isCheckmate(model.PieceColor.BLACK));
     }
+    
+    // Thế cờ chuẩn (chessprogramming.org/Perft_Results), độ sâu và số nút mong đợi
+    private static final String[] PERFT_FENS = {
+        "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", // Kiwipete
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+    };
+    private static final int[] PERFT_DEPTHS = { 4, 3, 5, 4, 3, 3 };
+    private static final long[] PERFT_NODES = { 197281, 97862, 674624, 422333, 62379, 89890 };
+    
+    private static void testPerft() {
+        for (int i = 0; i < PERFT_FENS.length; i++) {
+            long nodes = new Perft(Board.fromFen(PERFT_FENS[i])).perft(PERFT_DEPTHS[i]);
+            System.out.printf("   Thế cờ %d, perft(%d) = %d (mong đợi %d): %s%n", i + 1, PERFT_DEPTHS[i],
+                nodes, PERFT_NODES[i], (nodes == PERFT_NODES[i]) ? "ĐÚNG" : "SAI");
+        }
+    }
+    
+    // Khóa mẫu trong đặc tả định dạng sách Polyglot: thế cờ ban đầu rồi lần lượt từng nước
+    // (gồm mất quyền nhập thành, bắt qua đường có thể / không thể bắt)
+    private static final String[][] POLYGLOT_LINES = {
+        { "e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7" },
+        { "a2a4", "b7b5", "h2h4", "b5b4", "c2c4", "b4c3", "a1a3" },
+    };
+    private static final long[][] POLYGLOT_KEYS = {
+        { 0x463B96181691FC9CL, 0x823C9B50FD114196L, 0x0756B94461C50FB0L, 0x662FAFB965DB29D4L,
+          0x22A48B5A8E47FF78L, 0x652A607CA3F242C1L, 0x00FDD303C946BDD9L },
+        { 0x463B96181691FC9CL, 0, 0, 0, 0, 0x3C8123EA7B067637L, 0, 0x5C3F9B829B279560L },
+    };
+    
+    private static void testPolyglotKeys() {
+        for (int line = 0; line < POLYGLOT_LINES.length; line++) {
+            Board board = new Board();
+            boolean ok = true;
+            for (int ply = 0; ply <= POLYGLOT_LINES[line].length; ply++) {
+                long expected = POLYGLOT_KEYS[line][ply];
+                if (expected != 0)
+                    ok &= PolyglotBook.computeKey(board, PolyglotRandom.KEYS) == expected;
+                if (ply < POLYGLOT_LINES[line].length)
+                    board.makeMove(PackedMove.parse(POLYGLOT_LINES[line][ply], board));
+            }
+            System.out.println("   " + String.join(" ", POLYGLOT_LINES[line]) + ": " + (ok ? "ĐÚNG" : "SAI"));
+        }
+    }
+    
+    // { FEN, các nước SAN, FEN mong đợi sau cùng (null = nước cuối phải bị từ chối) }
+    private static final String[][] SAN_RULES = {
+        { "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1", "O-O O-O-O", "2kr3r/8/8/8/8/8/8/R4RK1 w - - 2 2" },
+        { PgnReader.START_FEN, "e4 a6 e5 d5 exd6", "rnbqkbnr/1pp1pppp/p2P4/8/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3" },
+        { "8/P6k/8/8/8/8/8/K7 w - - 0 1", "a8=N", "N7/7k/8/8/8/8/8/K7 b - - 0 1" },
+        { "4kr2/8/8/8/8/8/8/R3K2R w KQ - 0 1", "O-O", null }, // vua đi qua ô bị chiếu
+        { "4kr2/8/8/8/8/8/8/R3K2R w KQ - 0 1", "O-O-O", "4kr2/8/8/8/8/8/8/2KR3R b - - 1 1" },
+    };
+    
+    private static void testSanRules() {
+        for (String[] test : SAN_RULES) {
+            Board board = Board.fromFen(test[0]);
+            boolean ok = true;
+            boolean rejected = false;
+            for (String san : test[1].split(" ")) {
+                int move = San.parse(san, board);
+                if (move == PackedMove.NONE) {
+                    rejected = true;
+                    break;
+                }
+                ok &= San.toString(move, board).equals(san);
+                board.makeMove(move);
+            }
+            ok &= (test[2] == null) ? rejected : !rejected && board.toFen().equals(test[2]);
+            System.out.println("   " + test[1] + ": " + (ok ? "ĐÚNG" : "SAI"));
+        }
+    }
+    
+    private static void testZobrist() {
+        // Hai thế cờ chỉ khác quyền nhập thành phải có khóa khác nhau
+        Board all = Board.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        Board some = Board.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w Kkq - 0 1");
+        System.out.println("   Khác quyền nhập thành -> khác khóa: " + (all.hashKey() != some.hashKey()));
+        
+        // Đi ngẫu nhiên từ Kiwipete (nhập thành, bắt qua đường, phong cấp), kiểm tra sau mỗi
+        // nước và sau khi hoàn tác hết
+        Board board = Board.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        long startKey = board.hashKey();
+        Random random = new Random(1);
+        IntMoveList moves = new IntMoveList();
+        IntMoveList played = new IntMoveList();
+        boolean ok = true;
+        for (int ply = 0; ply < 200; ply++) {
+            board.generateLegalMoves(board.getSideToMove(), moves);
+            if (moves.isEmpty())
+                break;
+            int move = moves.get(random.nextInt(moves.size()));
+            board.makeMove(move);
+            played.add(move);
+            ok &= board.verifyHash();
+        }
+        for (int i = played.size() - 1; i >= 0; i--) {
+            board.unmakeMove(played.get(i));
+            ok &= board.verifyHash();
+        }
+        System.out.println("   Khóa cập nhật dần đúng sau " + played.size() + " nước và hoàn tác: "
+            + (ok && board.hashKey() == startKey));
+    }
 }
\ No newline at end of file
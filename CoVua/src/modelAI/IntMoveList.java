@@ -0,0 +1,76 @@
+package modelAI;
+
+import java.util.Arrays;
+
+// Danh sách nước đi nén (PackedMove) trên mảng int dùng lại được,
+// tránh tạo ArrayList và đối tượng Move trong lúc sinh nước đi.
+public class IntMoveList {
+    private int[] moves;
+    private int size;
+
+    public IntMoveList() {
+        this(256);
+    }
+
+    public IntMoveList(int capacity) {
+        moves = new int[capacity];
+        size = 0;
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public void swap(int i, int j) {
+        int tmp = moves[i];
+        moves[i] = moves[j];
+        moves[j] = tmp;
+    }
+
+    // Xoay trái k vị trí: phần tử k lên đầu danh sách
+    public void rotate(int k) {
+        if (size == 0 || k % size == 0)
+            return;
+        k %= size;
+        reverse(0, k - 1);
+        reverse(k, size - 1);
+        reverse(0, size - 1);
+    }
+
+    private void reverse(int i, int j) {
+        while (i < j) {
+            swap(i++, j--);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move)
+                return true;
+        }
+        return false;
+    }
+}
@@ -6,6 +6,7 @@ public class Move {
     public int fromRow, fromCol, toRow, toCol;
     public Piece moved;
     public Piece captured;
+    public int promotion; // quân phong cấp (Piece.KNIGHT..QUEEN), 0 = mặc định hậu
     
     public Move(int fromRow, int fromCol, int toRow, int toCol, Piece moved, Piece captured) {
         this.fromRow = fromRow;
@@ -20,6 +21,8 @@ public class Move {
     public Move clone() {
         Piece movedClone = moved != null ? moved.clonePiece() : null;
         Piece capturedClone = captured != null ? captured.clonePiece() : null;
-        return new Move(fromRow, fromCol, toRow, toCol, movedClone, capturedClone);
+        Move copy = new Move(fromRow, fromCol, toRow, toCol, movedClone, capturedClone);
+        copy.promotion = promotion;
+        return copy;
     }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package modelAI;
+
+import java.util.Arrays;
+
+import model.Board;
+
+// Sắp xếp nước đi cho Search: nước từ bảng chuyển vị, rồi nước ăn quân theo MVV-LVA
+// (quân bị ăn giá trị cao, quân ăn giá trị thấp trước), rồi hai nước sát thủ (killer)
+// của tầng hiện tại, cuối cùng là nước yên lặng theo bảng lịch sử [màu][ô đi][ô đến].
+//
+// Nước đi được chọn dần (selection) thay vì sắp xếp cả danh sách, vì phần lớn nút
+// bị cắt sau một vài nước đầu tiên.
+public class MoveOrdering {
+    private static final int TT_SCORE = 3_000_000;
+    private static final int CAPTURE_SCORE = 2_000_000;
+    private static final int KILLER_SCORE = 1_000_000;
+    private static final int HISTORY_MAX = KILLER_SCORE / 2;
+
+    private final int[][] killers = new int[Search.MAX_PLY][2];
+    private final int[][][] history = new int[2][64][64];
+    private final int[][] scores = new int[Search.MAX_PLY][256];
+
+    // Gọi đầu mỗi lần tìm kiếm
+    public void clear() {
+        for (int[] k : killers) {
+            k[0] = PackedMove.NONE;
+            k[1] = PackedMove.NONE;
+        }
+        for (int[][] side : history) {
+            for (int[] from : side) {
+                Arrays.fill(from, 0);
+            }
+        }
+    }
+
+    // --- CHẤM ĐIỂM ---
+    public void score(Board board, IntMoveList moves, int ply, int ttMove) {
+        if (scores[ply].length < moves.size()) {
+            scores[ply] = new int[moves.size() * 2];
+        }
+        int[] s = scores[ply];
+        int side = board.getSideToMove().ordinal();
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (move == ttMove) {
+                s[i] = TT_SCORE;
+            } else if (PackedMove.isCapture(move) || PackedMove.promotion(move) != 0) {
+                s[i] = CAPTURE_SCORE + mvvLva(move);
+            } else if (move == killers[ply][0]) {
+                s[i] = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                s[i] = KILLER_SCORE;
+            } else {
+                s[i] = history[side][PackedMove.from(move)][PackedMove.to(move)];
+            }
+        }
+    }
+
+    // Đưa nước có điểm cao nhất trong [index, size) lên vị trí index
+    public int pick(IntMoveList moves, int ply, int index) {
+        int[] s = scores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (s[i] > s[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int tmp = s[index];
+            s[index] = s[best];
+            s[best] = tmp;
+        }
+        return moves.get(index);
+    }
+
+    private static int mvvLva(int move) {
+        int score = 0;
+        if (PackedMove.isCapture(move)) {
+            score += Evaluator.PIECE_VALUES[PackedMove.capturedType(move)] * 8 - PackedMove.movedType(move);
+        }
+        if (PackedMove.promotion(move) != 0) {
+            score += Evaluator.PIECE_VALUES[PackedMove.promotion(move)];
+        }
+        return score;
+    }
+
+    // --- CẬP NHẬT KHI CẮT BETA ---
+    // Chỉ nước yên lặng: nước ăn quân đã được xếp trước theo MVV-LVA
+    public void onCutoff(int side, int move, int ply, int depth) {
+        if (PackedMove.isCapture(move) || PackedMove.promotion(move) != 0) {
+            return;
+        }
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+
+        int[] fromRow = history[side][PackedMove.from(move)];
+        int to = PackedMove.to(move);
+        fromRow[to] += depth * depth;
+        if (fromRow[to] > HISTORY_MAX) {
+            // Giảm một nửa toàn bảng để điểm lịch sử không vượt điểm sát thủ
+            for (int[][] s : history) {
+                for (int[] from : s) {
+                    for (int i = 0; i < 64; i++) {
+                        from[i] /= 2;
+                    }
+                }
+            }
+        }
+    }
+
+    // --- SO SÁNH SỐ NÚT ---
+    // Cách chạy: java modelAI.MoveOrdering <độ sâu> [nước đi ...]
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Cách dùng: MoveOrdering <độ sâu> [nước đi ...]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        Board board = new Board();
+        for (int i = 1; i < args.length; i++) {
+            int move = PackedMove.parse(args[i], board);
+            if (move == PackedMove.NONE) {
+                System.out.println("Nước đi không hợp lệ: " + args[i]);
+                return;
+            }
+            board.makeMove(move);
+        }
+
+        for (boolean enabled : new boolean[] { false, true }) {
+            Search search = new Search(board.cloneBoard(), new TranspositionTable(64));
+            search.setMoveOrdering(enabled);
+            SearchResult result = search.search(SearchLimits.depth(depth));
+            System.out.println((enabled ? "Có sắp xếp:    " : "Không sắp xếp: ") + result);
+        }
+    }
+}
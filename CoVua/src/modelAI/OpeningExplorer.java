@@ -0,0 +1,218 @@
+package modelAI;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.Bitboards;
+import model.Board;
+import model.Piece;
+import model.PieceColor;
+import model.Zobrist;
+
+// Tra cứu khai cuộc từ tệp chỉ mục .cvoe do OpeningExplorerBuilder tạo: với một thế cờ,
+// các nước đã được đi trong kho ván cờ cùng số ván trắng thắng / hòa / đen thắng.
+//
+// Đầu tệp 16 byte (little-endian): magic "CVOE" | u16 phiên bản | u16 dự phòng | u64 số mục.
+// Sau đó các mục 24 byte, sắp tăng dần theo (khóa không dấu, nước đi):
+//  u64 khóa thế cờ | u16 nước đi (ô đi | ô đến << 6 | phong cấp << 12) | u16 dự phòng
+//  | u32 trắng thắng | u32 hòa | u32 đen thắng
+//
+// Tệp được ánh xạ bộ nhớ theo vùng (mỗi vùng chứa trọn các mục, đọc được tệp > 2 GB).
+// Trên heap chỉ giữ chỉ mục thưa: khóa của mỗi mục thứ FENCE_INTERVAL. Tra cứu tìm nhị
+// phân trên chỉ mục thưa rồi trong một khối FENCE_INTERVAL mục liền nhau của tệp, nên chỉ
+// chạm một hai trang bộ nhớ.
+//
+// Cách chạy: java modelAI.OpeningExplorer <tệp .cvoe> [FEN]
+public final class OpeningExplorer implements AutoCloseable {
+    static final int MAGIC = 0x454F5643; // "CVOE"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 24;
+    static final long MAX_COUNT = 0xFFFFFFFFL;
+
+    private static final int FENCE_INTERVAL = 128;
+    private static final long REGION_ENTRIES = (1L << 30) / ENTRY_BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+    private final long entries;
+    private final long[] fences; // khóa của mục i * FENCE_INTERVAL
+
+    private OpeningExplorer(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        if (header.position() < HEADER_BYTES || header.getInt(0) != MAGIC)
+            throw new IOException("Không phải tệp chỉ mục khai cuộc CVOE");
+        if ((header.getShort(4) & 0xFFFF) != VERSION)
+            throw new IOException("Phiên bản tệp CVOE không hỗ trợ: " + (header.getShort(4) & 0xFFFF));
+        entries = header.getLong(8);
+        if (entries < 0 || HEADER_BYTES + entries * ENTRY_BYTES > channel.size())
+            throw new IOException("Tệp CVOE bị cắt cụt: cần " + entries + " mục");
+
+        int count = (int) Math.max(1, (entries + REGION_ENTRIES - 1) / REGION_ENTRIES);
+        regions = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long first = i * REGION_ENTRIES;
+            long length = Math.min(REGION_ENTRIES, entries - first) * ENTRY_BYTES;
+            regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * ENTRY_BYTES, length);
+            regions[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        fences = new long[(int) ((entries + FENCE_INTERVAL - 1) / FENCE_INTERVAL)];
+        for (int f = 0; f < fences.length; f++) {
+            fences[f] = key((long) f * FENCE_INTERVAL);
+        }
+    }
+
+    public static OpeningExplorer open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new OpeningExplorer(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Số cặp (thế cờ, nước đi) trong chỉ mục
+    public long size() {
+        return entries;
+    }
+
+    // --- KHÓA THẾ CỜ ---
+    // Khóa Zobrist của Board, nhưng chỉ tính cột bắt qua đường khi có tốt của bên đi đứng
+    // cạnh tốt vừa đi 2 ô; nhờ vậy các thứ tự nước khác nhau dẫn tới cùng thế cờ (hoán vị)
+    // có cùng khóa.
+    public static long positionKey(Board board) {
+        long key = board.hashKey();
+        int ep = board.getEnPassantSquare();
+        if (ep >= 0) {
+            PieceColor side = board.getSideToMove();
+            long neighbours = ((1L << ep >>> 1) & ~Bitboards.FILE_H) | ((1L << ep << 1) & ~Bitboards.FILE_A);
+            if ((board.getPieces(side, Piece.PAWN) & neighbours) == 0)
+                key ^= Zobrist.EN_PASSANT[Bitboards.colOf(ep)];
+        }
+        return key;
+    }
+
+    // Nước đi rút gọn lưu trong mục: ô đi, ô đến, phong cấp
+    static int moveKey(int move) {
+        return PackedMove.toShort(move) & 0x7FFF;
+    }
+
+    // --- TRA CỨU ---
+    // Các nước đã đi từ thế cờ hiện tại của board, nhiều ván nhất trước. Mục không ứng với
+    // nước hợp lệ (trùng khóa) bị bỏ qua.
+    public List<ExplorerMove> probe(Board board) {
+        long key = positionKey(board);
+        List<ExplorerMove> result = new ArrayList<>();
+        long i = lowerBound(key);
+        if (i >= entries || key(i) != key)
+            return result;
+
+        IntMoveList legal = new IntMoveList();
+        board.generateLegalMoves(board.getSideToMove(), legal);
+        for (; i < entries && key(i) == key; i++) {
+            int code = move(i);
+            for (int m = 0; m < legal.size(); m++) {
+                if (moveKey(legal.get(m)) == code) {
+                    result.add(new ExplorerMove(legal.get(m), whiteWins(i), draws(i), blackWins(i)));
+                    break;
+                }
+            }
+        }
+        result.sort((a, b) -> Long.compare(b.games(), a.games()));
+        return result;
+    }
+
+    // Chỉ số mục đầu tiên có khóa >= key: tìm nhị phân trên chỉ mục thưa (trên heap), sau
+    // đó tìm nhị phân trong khoảng FENCE_INTERVAL mục của tệp
+    private long lowerBound(long key) {
+        int f = 0;
+        int fHi = fences.length;
+        while (f < fHi) {
+            int mid = (f + fHi) >>> 1;
+            if (Long.compareUnsigned(fences[mid], key) < 0) {
+                f = mid + 1;
+            } else {
+                fHi = mid;
+            }
+        }
+        // fences[f - 1] < key <= fences[f]: kết quả nằm trong ((f - 1) * FENCE_INTERVAL, f * FENCE_INTERVAL]
+        long lo = Math.max(0, (long) (f - 1) * FENCE_INTERVAL + 1);
+        long hi = Math.min(entries, (long) f * FENCE_INTERVAL);
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(key(mid), key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // --- ĐỌC MỤC (OpeningExplorerBuilder dùng khi trộn) ---
+    private ByteBuffer region(long index) {
+        return regions[(int) (index / REGION_ENTRIES)];
+    }
+
+    private int offset(long index) {
+        return (int) (index % REGION_ENTRIES) * ENTRY_BYTES;
+    }
+
+    long key(long index) {
+        return region(index).getLong(offset(index));
+    }
+
+    int move(long index) {
+        return region(index).getShort(offset(index) + 8) & 0xFFFF;
+    }
+
+    long whiteWins(long index) {
+        return Integer.toUnsignedLong(region(index).getInt(offset(index) + 12));
+    }
+
+    long draws(long index) {
+        return Integer.toUnsignedLong(region(index).getInt(offset(index) + 16));
+    }
+
+    long blackWins(long index) {
+        return Integer.toUnsignedLong(region(index).getInt(offset(index) + 20));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --- DÒNG LỆNH ---
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Cách dùng: OpeningExplorer <tệp .cvoe> [FEN]");
+            return;
+        }
+        Board board = (args.length > 1) ? Board.fromFen(args[1]) : new Board();
+        try (OpeningExplorer explorer = open(Paths.get(args[0]))) {
+            long start = System.nanoTime();
+            List<ExplorerMove> moves = explorer.probe(board);
+            long micros = (System.nanoTime() - start) / 1000;
+
+            System.out.printf("%d mục, %d nước từ thế cờ này (%d µs)%n", explorer.size(), moves.size(), micros);
+            for (ExplorerMove m : moves) {
+                System.out.printf("%-8s %10d ván  trắng %5.1f%%  hòa %5.1f%%  đen %5.1f%%%n",
+                        San.toString(m.move, board), m.games(), 100.0 * m.whiteWins / m.games(),
+                        100.0 * m.draws / m.games(), 100.0 * m.blackWins / m.games());
+            }
+        }
+    }
+}
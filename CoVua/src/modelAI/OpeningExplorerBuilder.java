@@ -0,0 +1,389 @@
+package modelAI;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import model.Board;
+
+// Tạo / cập nhật tệp chỉ mục OpeningExplorer từ kho ván cờ (PGN hoặc CVGR).
+//
+// Mỗi ván được đi lại trên Board tới maxPlies nửa nước; mỗi (thế cờ, nước đi) được cộng
+// kết quả ván vào một bảng băm địa chỉ mở trong bộ nhớ. Khi bảng đầy, các mục được sắp
+// xếp và ghi ra một tệp tạm (cùng định dạng .cvoe). mergeInto trộn k đường các tệp tạm,
+// phần còn trong bảng và chỉ mục cũ (nếu có) thành tệp mới rồi thay thế tệp cũ, nên thêm
+// ván mới không cần dựng lại từ đầu: chỉ mục cũ chỉ được đọc tuần tự một lần.
+//
+// Ván chưa có kết quả ("*") và ván PGN lỗi bị bỏ qua.
+//
+// Cách chạy: java modelAI.OpeningExplorerBuilder <tệp .cvoe> <tệp .pgn|.cvgr>... [--plies N]
+public final class OpeningExplorerBuilder {
+    public static final int DEFAULT_MAX_PLIES = 30;
+
+    private static final int TABLE_BITS = 20;
+    private static final int TABLE_SIZE = 1 << TABLE_BITS;
+    private static final int SPILL_SIZE = TABLE_SIZE / 4 * 3;
+    private static final int OUTPUT_BUFFER_BYTES = 1 << 20;
+
+    private final int maxPlies;
+    private final Board board = new Board();
+
+    // Bảng băm (khóa thế cờ, nước đi) -> số ván trắng thắng / hòa / đen thắng; moves[i] == 0
+    // là ô trống (nước đi từ a8 tới a8 không tồn tại)
+    private final long[] keys = new long[TABLE_SIZE];
+    private final int[] moves = new int[TABLE_SIZE];
+    private final int[] counts = new int[3 * TABLE_SIZE];
+    private int used;
+
+    private final List<Path> runs = new ArrayList<>();
+    private long games;
+
+    public OpeningExplorerBuilder() {
+        this(DEFAULT_MAX_PLIES);
+    }
+
+    public OpeningExplorerBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    // Số ván đã cộng vào (chưa tính chỉ mục cũ)
+    public long gameCount() {
+        return games;
+    }
+
+    // --- THÊM VÁN ---
+    // Ván bắt đầu từ startFen (null = thế cờ ban đầu) gồm các nước moves (PackedMove) với
+    // kết quả result (PgnGame.*)
+    public void addGame(String startFen, IntMoveList gameMoves, int result) throws IOException {
+        if (result < PgnGame.WHITE_WINS || result > PgnGame.DRAW)
+            return;
+        board.setFen(startFen != null ? startFen : PgnReader.START_FEN);
+        // PgnGame: trắng thắng 1, đen thắng 2, hòa 3 -> cột 0 (trắng), 2 (đen), 1 (hòa)
+        int column = (result == PgnGame.WHITE_WINS) ? 0 : (result == PgnGame.DRAW) ? 1 : 2;
+        int plies = Math.min(maxPlies, gameMoves.size());
+        for (int i = 0; i < plies; i++) {
+            int move = gameMoves.get(i);
+            add(OpeningExplorer.positionKey(board), OpeningExplorer.moveKey(move), column);
+            board.makeMove(move);
+        }
+        games++;
+    }
+
+    public void addGame(PgnGame game) throws IOException {
+        if (!game.hasError())
+            addGame(game.getBoard().getStartFen(), game.getMoves(), game.getResult());
+    }
+
+    // Mọi ván trong tệp PGN, trả về số ván đã đọc
+    public long addPgn(Path pgn) throws IOException {
+        try {
+            return PgnReader.read(pgn, game -> {
+                try {
+                    addGame(game);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            throw e;
+        }
+    }
+
+    // Mọi ván trong tệp CVGR, trả về số ván đã đọc
+    public long addRecords(Path records) throws IOException {
+        Board replay = new Board();
+        IntMoveList gameMoves = new IntMoveList();
+        long count = 0;
+        try (GameRecordReader reader = GameRecordReader.open(records)) {
+            for (long offset = reader.firstOffset(); offset < reader.endOffset(); count++) {
+                long next = reader.read(offset, replay, gameMoves);
+                addGame(reader.startFen(offset), gameMoves, reader.result(offset));
+                offset = next;
+            }
+        }
+        return count;
+    }
+
+    private void add(long key, int move, int column) throws IOException {
+        int mask = TABLE_SIZE - 1;
+        int slot = (int) ((key ^ (move * 0x9E3779B97F4A7C15L)) >>> (64 - TABLE_BITS));
+        while (moves[slot] != 0 && (keys[slot] != key || moves[slot] != move)) {
+            slot = (slot + 1) & mask;
+        }
+        if (moves[slot] == 0) {
+            keys[slot] = key;
+            moves[slot] = move;
+            used++;
+        }
+        counts[3 * slot + column]++;
+        if (used >= SPILL_SIZE)
+            spill();
+    }
+
+    // --- GHI TỆP TẠM ---
+    // Ghi các mục trong bảng (đã sắp xếp) ra một tệp tạm rồi xóa bảng
+    private void spill() throws IOException {
+        if (used == 0)
+            return;
+        int[] order = new int[used];
+        int n = 0;
+        for (int slot = 0; slot < TABLE_SIZE; slot++) {
+            if (moves[slot] != 0)
+                order[n++] = slot;
+        }
+        sortSlots(order, 0, n);
+
+        Path run = Files.createTempFile("covua-explorer", ".run");
+        run.toFile().deleteOnExit();
+        runs.add(run);
+        try (Output out = new Output(run)) {
+            for (int i = 0; i < n; i++) {
+                int slot = order[i];
+                out.put(keys[slot], moves[slot], Integer.toUnsignedLong(counts[3 * slot]),
+                        Integer.toUnsignedLong(counts[3 * slot + 1]), Integer.toUnsignedLong(counts[3 * slot + 2]));
+            }
+        }
+
+        Arrays.fill(moves, 0);
+        Arrays.fill(counts, 0);
+        used = 0;
+    }
+
+    // Sắp xếp nhanh các ô bảng theo (khóa không dấu, nước đi) trong order[lo, hi)
+    private void sortSlots(int[] order, int lo, int hi) {
+        while (hi - lo > 16) {
+            int pivot = order[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi - 1;
+            while (i <= j) {
+                while (compareSlots(order[i], pivot) < 0)
+                    i++;
+                while (compareSlots(order[j], pivot) > 0)
+                    j--;
+                if (i <= j) {
+                    int t = order[i];
+                    order[i++] = order[j];
+                    order[j--] = t;
+                }
+            }
+            // Đệ quy phần nhỏ hơn, lặp phần lớn hơn
+            if (j + 1 - lo < hi - i) {
+                sortSlots(order, lo, j + 1);
+                lo = i;
+            } else {
+                sortSlots(order, i, hi);
+                hi = j + 1;
+            }
+        }
+        for (int i = lo + 1; i < hi; i++) {
+            int slot = order[i];
+            int j = i - 1;
+            while (j >= lo && compareSlots(order[j], slot) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = slot;
+        }
+    }
+
+    private int compareSlots(int a, int b) {
+        int c = Long.compareUnsigned(keys[a], keys[b]);
+        return (c != 0) ? c : Integer.compare(moves[a], moves[b]);
+    }
+
+    // --- TRỘN ---
+    // Trộn các ván đã thêm vào chỉ mục index (tạo mới nếu chưa có). Tệp mới được ghi cạnh
+    // index rồi đổi tên đè lên, nên người đọc đang mở tệp cũ không bị ảnh hưởng.
+    // Sau khi trộn, builder trở về rỗng.
+    public void mergeInto(Path index) throws IOException {
+        spill();
+        List<OpeningExplorer> inputs = new ArrayList<>();
+        Path dir = index.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, index.getFileName().toString(), ".tmp");
+        try {
+            if (Files.exists(index))
+                inputs.add(OpeningExplorer.open(index));
+            for (Path run : runs) {
+                inputs.add(OpeningExplorer.open(run));
+            }
+            try (Output out = new Output(tmp)) {
+                merge(inputs, out);
+            }
+            for (OpeningExplorer in : inputs) {
+                in.close();
+            }
+            inputs.clear();
+            Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            for (OpeningExplorer in : inputs) {
+                in.close();
+            }
+            Files.deleteIfExists(tmp);
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            runs.clear();
+            games = 0;
+        }
+    }
+
+    // Trộn k đường bằng hàng đợi ưu tiên theo mục đầu của mỗi đầu vào; các mục trùng
+    // (thế cờ, nước đi) được cộng dồn
+    private static void merge(List<OpeningExplorer> inputs, Output out) throws IOException {
+        PriorityQueue<Cursor> queue = new PriorityQueue<>();
+        for (OpeningExplorer in : inputs) {
+            Cursor c = new Cursor(in);
+            if (c.advance())
+                queue.add(c);
+        }
+
+        long key = 0;
+        int move = 0;
+        long white = 0;
+        long draw = 0;
+        long black = 0;
+        boolean pending = false;
+        while (!queue.isEmpty()) {
+            Cursor c = queue.poll();
+            if (pending && (c.key != key || c.move != move)) {
+                out.put(key, move, white, draw, black);
+                pending = false;
+            }
+            if (!pending) {
+                key = c.key;
+                move = c.move;
+                white = draw = black = 0;
+                pending = true;
+            }
+            long i = c.index;
+            white += c.input.whiteWins(i);
+            draw += c.input.draws(i);
+            black += c.input.blackWins(i);
+            if (c.advance())
+                queue.add(c);
+        }
+        if (pending)
+            out.put(key, move, white, draw, black);
+    }
+
+    // Vị trí đọc tuần tự trong một đầu vào
+    private static final class Cursor implements Comparable<Cursor> {
+        final OpeningExplorer input;
+        long index = -1;
+        long key;
+        int move;
+
+        Cursor(OpeningExplorer input) {
+            this.input = input;
+        }
+
+        boolean advance() {
+            if (++index >= input.size())
+                return false;
+            key = input.key(index);
+            move = input.move(index);
+            return true;
+        }
+
+        @Override
+        public int compareTo(Cursor o) {
+            int c = Long.compareUnsigned(key, o.key);
+            return (c != 0) ? c : Integer.compare(move, o.move);
+        }
+    }
+
+    // Ghi tuần tự các mục đã sắp xếp; đầu tệp (số mục) được ghi khi đóng
+    private static final class Output implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(OUTPUT_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private long position = OpeningExplorer.HEADER_BYTES;
+        private long entries;
+
+        Output(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void put(long key, int move, long white, long draw, long black) throws IOException {
+            if (buffer.remaining() < OpeningExplorer.ENTRY_BYTES)
+                flush();
+            buffer.putLong(key).putShort((short) move).putShort((short) 0)
+                    .putInt((int) Math.min(white, OpeningExplorer.MAX_COUNT))
+                    .putInt((int) Math.min(draw, OpeningExplorer.MAX_COUNT))
+                    .putInt((int) Math.min(black, OpeningExplorer.MAX_COUNT));
+            entries++;
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+                buffer.putInt(OpeningExplorer.MAGIC).putShort((short) OpeningExplorer.VERSION).putShort((short) 0)
+                        .putLong(entries);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, buffer.position());
+                }
+                channel.force(false);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // --- DÒNG LỆNH ---
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Cách dùng: OpeningExplorerBuilder <tệp .cvoe> <tệp .pgn|.cvgr>... [--plies N]");
+            return;
+        }
+        int maxPlies = DEFAULT_MAX_PLIES;
+        List<Path> sources = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--plies")) {
+                maxPlies = Integer.parseInt(args[++i]);
+            } else {
+                sources.add(Paths.get(args[i]));
+            }
+        }
+
+        OpeningExplorerBuilder builder = new OpeningExplorerBuilder(maxPlies);
+        long start = System.nanoTime();
+        for (Path source : sources) {
+            if (source.toString().endsWith(".cvgr")) {
+                builder.addRecords(source);
+            } else {
+                builder.addPgn(source);
+            }
+        }
+        long added = builder.gameCount();
+        Path index = Paths.get(args[0]);
+        builder.mergeInto(index);
+        double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+
+        try (OpeningExplorer explorer = OpeningExplorer.open(index)) {
+            System.out.printf("Thêm %d ván, chỉ mục có %d mục (%d byte), %.2f s (%.0f ván/giây)%n", added,
+                    explorer.size(), Files.size(index), seconds, added / seconds);
+        }
+    }
+}
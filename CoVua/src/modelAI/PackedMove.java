@@ -0,0 +1,160 @@
+package modelAI;
+
+import model.Board;
+import model.Piece;
+import model.PieceColor;
+
+// Nước đi nén vào một int, dùng trong các vòng lặp nóng thay cho đối tượng Move.
+//
+//  bit  0- 5: ô đi (sq = row * 8 + col)
+//  bit  6-11: ô đến
+//  bit 12-14: quân phong cấp (0 = không, Piece.KNIGHT..Piece.QUEEN)
+//  bit    15: ăn quân
+//  bit    16: bắt tốt qua đường
+//  bit    17: nhập thành
+//  bit 18-20: loại quân đi
+//  bit 21-23: loại quân bị ăn (chỉ có nghĩa khi có cờ ăn quân)
+//
+// 16 bit thấp đủ để xác định nước đi trong một thế cờ (dùng khi lưu trữ).
+public final class PackedMove {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TYPE_MASK = 0x7;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int MOVED_SHIFT = 18;
+    private static final int CAPTURED_SHIFT = 21;
+
+    private PackedMove() {
+    }
+
+    // --- MÃ HÓA ---
+    public static int encode(int from, int to, int movedType, int capturedType, int promotion, int flags) {
+        int move = from | (to << TO_SHIFT) | (promotion << PROMOTION_SHIFT) | (movedType << MOVED_SHIFT) | flags;
+        if (capturedType >= 0) {
+            move |= CAPTURE | (capturedType << CAPTURED_SHIFT);
+        }
+        return move;
+    }
+
+    // Suy ra cờ phong cấp (hậu) / bắt qua đường / nhập thành từ quân đi theo luật của Board
+    public static int of(int from, int to, Piece moved, Piece captured) {
+        int movedType = moved.getType();
+        int capturedType = (captured != null) ? captured.getType() : -1;
+        int promotion = 0;
+        int flags = 0;
+
+        if (movedType == Piece.PAWN) {
+            int promotionRow = (moved.getColor() == PieceColor.WHITE) ? 0 : 7;
+            if ((to >>> 3) == promotionRow) {
+                promotion = Piece.QUEEN;
+            }
+            // Đi chéo vào ô trống: bắt qua đường
+            if (captured == null && (from & 7) != (to & 7)) {
+                flags |= EN_PASSANT;
+                capturedType = Piece.PAWN;
+            }
+        } else if (movedType == Piece.KING && Math.abs((from & 7) - (to & 7)) == 2) {
+            flags |= CASTLE;
+        }
+
+        return encode(from, to, movedType, capturedType, promotion, flags);
+    }
+
+    // Cùng nước đi nhưng phong cấp thành quân khác
+    public static int withPromotion(int move, int promotion) {
+        return (move & ~(TYPE_MASK << PROMOTION_SHIFT)) | (promotion << PROMOTION_SHIFT);
+    }
+
+    // --- GIẢI MÃ ---
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    public static int promotion(int move) {
+        return (move >>> PROMOTION_SHIFT) & TYPE_MASK;
+    }
+
+    public static int movedType(int move) {
+        return (move >>> MOVED_SHIFT) & TYPE_MASK;
+    }
+
+    public static int capturedType(int move) {
+        return (move >>> CAPTURED_SHIFT) & TYPE_MASK;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    // 16 bit thấp: ô đi, ô đến, phong cấp, ăn quân
+    public static int toShort(int move) {
+        return move & 0xFFFF;
+    }
+
+    // --- CHUYỂN ĐỔI VỚI Move (cho giao diện) ---
+    public static int fromMove(Move m) {
+        int from = m.fromRow * 8 + m.fromCol;
+        int to = m.toRow * 8 + m.toCol;
+        int move = of(from, to, m.moved, m.captured);
+        return (m.promotion != 0 && promotion(move) != 0) ? withPromotion(move, m.promotion) : move;
+    }
+
+    // Phải gọi trước khi nước đi được thực hiện trên bàn cờ
+    public static Move toMove(int move, Board board) {
+        int from = from(move);
+        int to = to(move);
+        Piece moved = board.getPiece(from >>> 3, from & 7);
+        Piece captured = board.getPiece(to >>> 3, to & 7);
+        Move m = new Move(from >>> 3, from & 7, to >>> 3, to & 7, moved, captured);
+        m.promotion = promotion(move);
+        return m;
+    }
+
+    // Tìm nước đi hợp lệ của bên đang đi khớp với ký hiệu "e2e4" (NONE nếu không có)
+    public static int parse(String text, Board board) {
+        IntMoveList moves = new IntMoveList();
+        board.generateLegalMoves(board.getSideToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            String candidate = toString(moves.get(i));
+            // "e7e8" không ghi quân phong cấp vẫn khớp với "e7e8q"
+            if (candidate.equalsIgnoreCase(text)
+                    || (text.length() == 4 && candidate.regionMatches(true, 0, text, 0, 4))) {
+                return moves.get(i);
+            }
+        }
+        return NONE;
+    }
+
+    // Ký hiệu dạng "e2e4", "e7e8q"
+    public static String toString(int move) {
+        int from = from(move);
+        int to = to(move);
+        StringBuilder sb = new StringBuilder(5);
+        sb.append((char) ('a' + (from & 7))).append(8 - (from >>> 3));
+        sb.append((char) ('a' + (to & 7))).append(8 - (to >>> 3));
+        int promotion = promotion(move);
+        if (promotion != 0) {
+            sb.append("pnbrqk".charAt(promotion));
+        }
+        return sb.toString();
+    }
+}
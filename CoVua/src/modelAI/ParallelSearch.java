@@ -0,0 +1,137 @@
+package modelAI;
+
+import java.util.Arrays;
+import model.Board;
+
+// Tìm kiếm song song kiểu Lazy SMP: N luồng cùng tìm từ thế cờ gốc, mỗi luồng trên
+// bản sao Board riêng, dùng chung một bảng chuyển vị. Các luồng phụ bắt đầu ở độ sâu
+// lệch nhau; kết quả lấy từ luồng chính, các luồng phụ dừng khi luồng chính xong.
+public class ParallelSearch {
+    private final TranspositionTable tt;
+    private PawnTable[] pawnTables; // [luồng], giữ lại giữa các lần tìm kiếm
+    private volatile Search[] running;
+    private volatile boolean cancelled;
+    private SearchListener listener;
+    private Tablebase tablebase;
+
+    public ParallelSearch(TranspositionTable tt) {
+        this(tt, new PawnTable[0]);
+    }
+
+    // pawnTables: bảng tốt của từng luồng, ô null được tạo khi cần. Người gọi giữ mảng để
+    // dùng lại ở lần tìm kiếm sau, nhưng không đưa cho tìm kiếm khác khi lần này còn chạy.
+    public ParallelSearch(TranspositionTable tt, PawnTable[] pawnTables) {
+        this.tt = tt;
+        this.pawnTables = pawnTables;
+    }
+
+    // Nhận kết quả từng vòng của luồng chính
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    // Bảng tàn cuộc dùng chung cho mọi luồng (chỉ đọc)
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    // threads: số luồng cho lần tìm kiếm này (tính cả luồng gọi)
+    public SearchResult search(Board board, SearchLimits limits, int threads) {
+        tt.newSearch(); // một thế hệ cho cả lần tìm kiếm, các luồng không tự tăng
+        Search main = new Search(board.cloneBoard(), tt, pawnTable(0));
+        main.setListener(listener);
+        main.setTablebase(tablebase);
+        Search[] helpers = new Search[Math.max(0, threads - 1)];
+        Thread[] workers = new Thread[helpers.length];
+        SearchLimits helperLimits = new SearchLimits(limits.maxDepth, 0, 0);
+
+        for (int i = 0; i < helpers.length; i++) {
+            Search helper = new Search(board.cloneBoard(), tt, pawnTable(i + 1));
+            helper.configureHelper(i + 1);
+            helper.setTablebase(tablebase);
+            helpers[i] = helper;
+            workers[i] = new Thread(() -> helper.iterate(helperLimits), "lazy-smp-" + (i + 1));
+            workers[i].setDaemon(true);
+        }
+
+        Search[] all = new Search[helpers.length + 1];
+        all[0] = main;
+        System.arraycopy(helpers, 0, all, 1, helpers.length);
+        running = all;
+        if (cancelled) {
+            for (Search s : all) {
+                s.stop(); // stop() được gọi trước khi các luồng kịp khởi tạo
+            }
+        }
+
+        for (Thread worker : workers) {
+            worker.start();
+        }
+
+        SearchResult result;
+        try {
+            result = main.iterate(limits);
+        } finally {
+            for (Search helper : helpers) {
+                helper.stop();
+            }
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            running = null;
+        }
+
+        long totalNodes = 0;
+        for (Search s : all) {
+            totalNodes += s.getNodes();
+        }
+        return new SearchResult(result.bestMove, result.score, result.depth, totalNodes, result.timeMillis);
+    }
+
+    // Bảng tốt của luồng thứ index (0 là luồng chính), tạo khi cần
+    private PawnTable pawnTable(int index) {
+        if (index >= pawnTables.length) {
+            pawnTables = Arrays.copyOf(pawnTables, index + 1);
+        }
+        if (pawnTables[index] == null) {
+            pawnTables[index] = new PawnTable(PawnTable.DEFAULT_ENTRIES);
+        }
+        return pawnTables[index];
+    }
+
+    // Dừng lần tìm kiếm đang chạy, hoặc lần sắp chạy nếu chưa bắt đầu (gọi từ luồng khác).
+    // Sau stop() đối tượng này không dùng để tìm tiếp được nữa.
+    public void stop() {
+        cancelled = true;
+        Search[] current = running;
+        if (current != null) {
+            for (Search s : current) {
+                s.stop();
+            }
+        }
+    }
+
+    // Đo thời gian đến độ sâu với số luồng khác nhau, mỗi cấu hình trên bảng chuyển vị
+    // mới; hệ số tăng tốc so với cấu hình đầu tiên. Chỉ có ý nghĩa khi số luồng không vượt
+    // số nhân CPU.
+    // Cách chạy: java modelAI.ParallelSearch <độ sâu> <số luồng> [số luồng ...]
+    public static void main(String[] args) {
+        int depth = Integer.parseInt(args[0]);
+        System.out.println("Số nhân CPU: " + Runtime.getRuntime().availableProcessors());
+        long baseMillis = 0;
+        for (int i = 1; i < args.length; i++) {
+            int threads = Integer.parseInt(args[i]);
+            ParallelSearch search = new ParallelSearch(new TranspositionTable(256));
+            SearchResult result = search.search(new Board(), SearchLimits.depth(depth), threads);
+            long millis = Math.max(1, result.timeMillis);
+            if (i == 1) {
+                baseMillis = millis;
+            }
+            System.out.printf("%d luồng: %s  tăng tốc x%.2f%n", threads, result, (double) baseMillis / millis);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package modelAI;
+
+import model.Bitboards;
+import model.Board;
+import model.Piece;
+import model.PieceColor;
+
+// Bộ nhớ đệm điểm cấu trúc tốt (tốt chồng, tốt cô lập, tốt thông) theo Board.pawnHashKey().
+// Cấu trúc tốt ít thay đổi giữa các nút nên phần lớn lần tra đều trúng.
+// Mỗi luồng tìm kiếm dùng một bảng riêng, không cần đồng bộ. Bảng được truyền vào Search
+// như bảng chuyển vị và giữ lại giữa các nước đi để không phải làm nóng lại từ đầu.
+public class PawnTable {
+    public static final int DEFAULT_ENTRIES = 1 << 16; // 64K mục (1 MB)
+
+    private static final int DOUBLED_MG = -10;
+    private static final int DOUBLED_EG = -20;
+    private static final int ISOLATED_MG = -10;
+    private static final int ISOLATED_EG = -15;
+    // Thưởng tốt thông theo hàng tính từ phía mình (1 = hàng xuất phát ... 6 = sát hàng phong
+    // cấp; tốt không đứng ở hàng 0 và 7)
+    private static final int[] PASSED_MG = { 0, 5, 10, 15, 25, 40, 60, 0 };
+    private static final int[] PASSED_EG = { 0, 10, 20, 35, 60, 100, 150, 0 };
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    private static final long[][] PASSED_MASKS = new long[2][64]; // ô phía trước trên cột mình và hai cột bên
+
+    static {
+        for (int col = 0; col < 8; col++) {
+            FILES[col] = Bitboards.FILE_A << col;
+        }
+        for (int col = 0; col < 8; col++) {
+            ADJACENT_FILES[col] = (col > 0 ? FILES[col - 1] : 0) | (col < 7 ? FILES[col + 1] : 0);
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            int row = Bitboards.rowOf(sq);
+            long span = FILES[Bitboards.colOf(sq)] | ADJACENT_FILES[Bitboards.colOf(sq)];
+            long above = (row == 0) ? 0 : -1L >>> (64 - row * 8); // các hàng < row
+            long below = (row == 7) ? 0 : -1L << ((row + 1) * 8); // các hàng > row
+            PASSED_MASKS[0][sq] = span & above; // trắng tiến về row 0
+            PASSED_MASKS[1][sq] = span & below;
+        }
+    }
+
+    private final long[] keys;
+    private final int[] mgScores;
+    private final int[] egScores;
+    private final int mask;
+    private long hits;
+    private long misses;
+
+    // entries được làm tròn xuống lũy thừa của 2
+    public PawnTable(int entries) {
+        int size = Integer.highestOneBit(Math.max(1, entries));
+        keys = new long[size];
+        mgScores = new int[size];
+        egScores = new int[size];
+        mask = size - 1;
+    }
+
+    // Điểm cấu trúc tốt theo góc nhìn quân trắng, đã pha trộn theo giai đoạn ván cờ
+    public int probe(Board board) {
+        long key = board.pawnHashKey();
+        int index = (int) key & mask;
+        if (keys[index] == key && key != 0) {
+            hits++;
+        } else {
+            misses++;
+            long white = board.getPieces(PieceColor.WHITE, Piece.PAWN);
+            long black = board.getPieces(PieceColor.BLACK, Piece.PAWN);
+            keys[index] = key;
+            mgScores[index] = evaluate(white, black, 0, true) - evaluate(black, white, 1, true);
+            egScores[index] = evaluate(white, black, 0, false) - evaluate(black, white, 1, false);
+        }
+        return Evaluator.taper(mgScores[index], egScores[index], board.getPhase());
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public void resetStats() {
+        hits = 0;
+        misses = 0;
+    }
+
+    // --- ĐÁNH GIÁ CẤU TRÚC TỐT ---
+    // Điểm của bên own (color: 0 trắng, 1 đen)
+    static int evaluate(long own, long enemy, int color, boolean midgame) {
+        int score = 0;
+        for (int col = 0; col < 8; col++) {
+            int count = Long.bitCount(own & FILES[col]);
+            if (count == 0)
+                continue;
+            if (count > 1)
+                score += (count - 1) * (midgame ? DOUBLED_MG : DOUBLED_EG);
+            if ((own & ADJACENT_FILES[col]) == 0)
+                score += count * (midgame ? ISOLATED_MG : ISOLATED_EG);
+        }
+
+        long pawns = own;
+        while (pawns != 0) {
+            int sq = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            if ((PASSED_MASKS[color][sq] & enemy) == 0) {
+                int row = Bitboards.rowOf(sq);
+                int rank = (color == 0) ? 7 - row : row;
+                score += midgame ? PASSED_MG[rank] : PASSED_EG[rank];
+            }
+        }
+        return score;
+    }
+
+    // --- THỐNG KÊ TỈ LỆ TRÚNG ---
+    // Cách chạy: java modelAI.PawnTable <độ sâu> [nước đi ...]
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Cách dùng: PawnTable <độ sâu> [nước đi ...]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        Board board = new Board();
+        for (int i = 1; i < args.length; i++) {
+            int move = PackedMove.parse(args[i], board);
+            if (move == PackedMove.NONE) {
+                System.out.println("Nước đi không hợp lệ: " + args[i]);
+                return;
+            }
+            board.makeMove(move);
+        }
+
+        Search search = new Search(board, new TranspositionTable(64));
+        SearchResult result = search.search(SearchLimits.depth(depth));
+        PawnTable pawns = search.getPawnTable();
+        System.out.println(result);
+        System.out.printf("Bảng tốt: %d trúng, %d trượt (%.2f%%)%n",
+                pawns.getHits(), pawns.getMisses(), pawns.hitRate() * 100);
+    }
+}
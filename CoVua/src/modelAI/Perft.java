@@ -0,0 +1,226 @@
+package modelAI;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import model.Board;
+
+// Đếm số nút lá (perft) để kiểm tra tính đúng và đo tốc độ sinh nước đi.
+//
+// Cách chạy: java modelAI.Perft <độ sâu> [--fen "<FEN>"] [--divide] [--hash MB] [--threads N] [nước đi ...]
+// Các nước đi dạng "e2e4" được đi lần lượt từ thế cờ --fen (mặc định thế cờ ban đầu)
+// trước khi đếm.
+public class Perft {
+    private static final int MAX_DEPTH = 64;
+
+    private final Board board;
+    private final IntMoveList[] moveLists;
+
+    // Bảng băm (tùy chọn): khóa = hashKey trộn với độ sâu, giá trị = số nút
+    private long[] hashKeys;
+    private long[] hashNodes;
+    private int hashMask;
+
+    public Perft(Board board) {
+        this.board = board;
+        this.moveLists = new IntMoveList[MAX_DEPTH];
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            moveLists[i] = new IntMoveList();
+        }
+    }
+
+    // Bật bộ nhớ đệm theo khóa Zobrist, kích thước tính bằng MB
+    public void enableHash(int megabytes) {
+        int entries = Integer.highestOneBit(Math.max(1, megabytes * (1024 * 1024 / 16)));
+        hashKeys = new long[entries];
+        hashNodes = new long[entries];
+        hashMask = entries - 1;
+    }
+
+    // --- ĐẾM NÚT ---
+    public long perft(int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+
+        IntMoveList moves = moveLists[depth];
+        board.generateLegalMoves(board.getSideToMove(), moves);
+        if (depth == 1) {
+            return moves.size(); // đếm gộp ở tầng cuối
+        }
+
+        long key = 0;
+        int index = 0;
+        if (hashKeys != null) {
+            key = board.hashKey() ^ (depth * 0x9E3779B97F4A7C15L);
+            index = (int) key & hashMask;
+            if (hashKeys[index] == key) {
+                return hashNodes[index];
+            }
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            nodes += perft(depth - 1);
+            board.unmakeMove(move);
+        }
+
+        if (hashKeys != null) {
+            hashKeys[index] = key;
+            hashNodes[index] = nodes;
+        }
+        return nodes;
+    }
+
+    // In số nút theo từng nước đi gốc, trả về tổng
+    public long divide(int depth) {
+        IntMoveList roots = new IntMoveList();
+        board.generateLegalMoves(board.getSideToMove(), roots);
+
+        long total = 0;
+        for (int i = 0; i < roots.size(); i++) {
+            int move = roots.get(i);
+            board.makeMove(move);
+            long nodes = perft(depth - 1);
+            board.unmakeMove(move);
+            System.out.println(PackedMove.toString(move) + ": " + nodes);
+            total += nodes;
+        }
+        return total;
+    }
+
+    // --- ĐẾM SONG SONG ---
+    // Chia các nước đi gốc cho các luồng. Mỗi luồng có một bản sao Board và một bảng băm
+    // riêng (hashMegabytes chia đều), dùng lại cho mọi nhánh gốc mà luồng đó đếm.
+    public static long parallel(Board board, int depth, int threads, int hashMegabytes) {
+        if (depth <= 1) {
+            return new Perft(board).perft(depth);
+        }
+
+        IntMoveList roots = new IntMoveList();
+        board.generateLegalMoves(board.getSideToMove(), roots);
+        long total = 0;
+        for (long nodes : parallelRoots(board, roots, depth, threads, hashMegabytes)) {
+            total += nodes;
+        }
+        return total;
+    }
+
+    // Như divide nhưng đếm song song các nước đi gốc (depth >= 1)
+    public static long parallelDivide(Board board, int depth, int threads, int hashMegabytes) {
+        IntMoveList roots = new IntMoveList();
+        board.generateLegalMoves(board.getSideToMove(), roots);
+        long[] counts = parallelRoots(board, roots, depth, threads, hashMegabytes);
+
+        long total = 0;
+        for (int i = 0; i < roots.size(); i++) {
+            System.out.println(PackedMove.toString(roots.get(i)) + ": " + counts[i]);
+            total += counts[i];
+        }
+        return total;
+    }
+
+    // Số nút dưới mỗi nước đi gốc, theo thứ tự của roots
+    private static long[] parallelRoots(Board board, IntMoveList roots, int depth, int threads, int hashMegabytes) {
+        ThreadLocal<Perft> workers = ThreadLocal.withInitial(() -> {
+            Perft perft = new Perft(board.cloneBoard());
+            if (hashMegabytes > 0) {
+                perft.enableHash(Math.max(1, hashMegabytes / threads));
+            }
+            return perft;
+        });
+
+        List<RecursiveTask<Long>> tasks = new ArrayList<>();
+        for (int i = 0; i < roots.size(); i++) {
+            final int move = roots.get(i);
+            tasks.add(new RecursiveTask<Long>() {
+                @Override
+                protected Long compute() {
+                    // Bản sao của luồng luôn ở thế cờ gốc giữa các nhánh
+                    Perft perft = workers.get();
+                    perft.board.makeMove(move);
+                    long nodes = perft.perft(depth - 1);
+                    perft.board.unmakeMove(move);
+                    return nodes;
+                }
+            });
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> {
+                long[] counts = new long[tasks.size()];
+                RecursiveTask.invokeAll(tasks);
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] = tasks.get(i).join();
+                }
+                return counts;
+            }).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // --- DÒNG LỆNH ---
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Cách dùng: Perft <độ sâu> [--fen \"<FEN>\"] [--divide] [--hash MB] [--threads N] [nước đi ...]");
+            return;
+        }
+
+        int depth = Integer.parseInt(args[0]);
+        boolean divide = false;
+        int hashMegabytes = 0;
+        int threads = 1;
+        Board board = new Board();
+
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--fen")) {
+                // FEN là một đối số (đặt trong ngoặc kép), phải đứng trước các nước đi
+                try {
+                    board = Board.fromFen(args[++i]);
+                } catch (IllegalArgumentException e) {
+                    System.out.println(e.getMessage());
+                    return;
+                }
+            } else if (arg.equals("--divide")) {
+                divide = true;
+            } else if (arg.equals("--hash")) {
+                hashMegabytes = Integer.parseInt(args[++i]);
+            } else if (arg.equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                int move = PackedMove.parse(arg, board);
+                if (move == PackedMove.NONE) {
+                    System.out.println("Nước đi không hợp lệ: " + arg);
+                    return;
+                }
+                board.makeMove(move);
+            }
+        }
+
+        board.printBoard();
+        long start = System.nanoTime();
+        long nodes;
+
+        if (threads > 1) {
+            nodes = divide ? parallelDivide(board, depth, threads, hashMegabytes)
+                    : parallel(board, depth, threads, hashMegabytes);
+        } else {
+            Perft perft = new Perft(board);
+            if (hashMegabytes > 0) {
+                perft.enableHash(hashMegabytes);
+            }
+            nodes = divide ? perft.divide(depth) : perft.perft(depth);
+        }
+
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        System.out.printf("perft(%d) = %d  (%.3f s, %.0f nút/giây)%n",
+                depth, nodes, elapsed / 1e9, nodes * 1e9 / elapsed);
+    }
+}
@@ -0,0 +1,137 @@
+package modelAI;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import model.Board;
+
+// Một ván cờ do PgnReader đọc ra. Đối tượng được dùng lại cho ván tiếp theo nên chỉ
+// hợp lệ trong lời gọi consumer; cần giữ lại thì chép dữ liệu ra ngoài.
+//
+// Thẻ tiêu đề được lưu dưới dạng vị trí trong vùng nhớ của tệp, chỉ tạo String khi
+// gọi tagName / tagValue / tag.
+public final class PgnGame {
+    public static final int RESULT_NONE = 0; // "*" hoặc thiếu kết quả
+    public static final int WHITE_WINS = 1;
+    public static final int BLACK_WINS = 2;
+    public static final int DRAW = 3;
+
+    private ByteBuffer source;
+    private int[] tags = new int[4 * 16]; // mỗi thẻ: đầu tên, cuối tên, đầu giá trị, cuối giá trị
+    private int tagCount;
+    private final IntMoveList moves = new IntMoveList();
+    private final Board board = new Board();
+    private int result;
+    private String error;
+    private long offset;
+
+    PgnGame() {
+    }
+
+    // --- ĐẶT LẠI / GHI (PgnReader) ---
+    void reset(ByteBuffer source, long offset) {
+        this.source = source;
+        this.offset = offset;
+        tagCount = 0;
+        moves.clear();
+        result = RESULT_NONE;
+        error = null;
+    }
+
+    void addTag(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+        if (4 * tagCount == tags.length) {
+            tags = Arrays.copyOf(tags, tags.length * 2);
+        }
+        int i = 4 * tagCount++;
+        tags[i] = nameStart;
+        tags[i + 1] = nameEnd;
+        tags[i + 2] = valueStart;
+        tags[i + 3] = valueEnd;
+    }
+
+    void setResult(int result) {
+        this.result = result;
+    }
+
+    void setError(String error) {
+        this.error = error;
+    }
+
+    IntMoveList moveList() {
+        return moves;
+    }
+
+    // Chỉ số thẻ có tên name, -1 nếu không có (so sánh byte, không tạo String)
+    int findTag(String name) {
+        for (int t = 0; t < tagCount; t++) {
+            int start = tags[4 * t];
+            int end = tags[4 * t + 1];
+            if (end - start != name.length())
+                continue;
+            int i = 0;
+            while (i < name.length() && source.get(start + i) == name.charAt(i)) {
+                i++;
+            }
+            if (i == name.length())
+                return t;
+        }
+        return -1;
+    }
+
+    // --- TRUY VẤN ---
+    public int tagCount() {
+        return tagCount;
+    }
+
+    public String tagName(int index) {
+        return decode(tags[4 * index], tags[4 * index + 1]);
+    }
+
+    // Giá trị đã bỏ ký tự thoát \" và \\
+    public String tagValue(int index) {
+        String raw = decode(tags[4 * index + 2], tags[4 * index + 3]);
+        return (raw.indexOf('\\') < 0) ? raw : raw.replace("\\\"", "\"").replace("\\\\", "\\");
+    }
+
+    // Giá trị của thẻ name, null nếu ván không có thẻ đó
+    public String tag(String name) {
+        int index = findTag(name);
+        return (index < 0) ? null : tagValue(index);
+    }
+
+    private String decode(int start, int end) {
+        byte[] bytes = new byte[end - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = source.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Các nước đã đi được (dạng PackedMove), dừng ở nước lỗi đầu tiên nếu có
+    public IntMoveList getMoves() {
+        return moves;
+    }
+
+    // Thế cờ sau nước cuối cùng trong getMoves()
+    public Board getBoard() {
+        return board;
+    }
+
+    public int getResult() {
+        return result;
+    }
+
+    public boolean hasError() {
+        return error != null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    // Vị trí byte bắt đầu ván trong tệp
+    public long getOffset() {
+        return offset;
+    }
+}
@@ -0,0 +1,402 @@
+package modelAI;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import model.Board;
+
+// Đọc tệp PGN theo luồng: tệp được chia thành các đoạn tại ranh giới ván cờ, mỗi đoạn
+// ánh xạ bộ nhớ riêng (nên đọc được tệp lớn hơn 2 GB). Thẻ tiêu đề và nước đi được tách
+// trực tiếp trên byte, không tạo String cho từng ván; nước đi SAN được giải trên Board
+// và đi luôn, ván đã đọc xong được đưa cho consumer.
+//
+// Chế độ song song chia các đoạn cho nhiều luồng, mỗi luồng một Board/PgnGame riêng;
+// khi đó consumer được gọi đồng thời từ nhiều luồng và không theo thứ tự trong tệp.
+//
+// Cách chạy: java modelAI.PgnReader <tệp .pgn> [--threads N]
+public class PgnReader {
+    private static final long CHUNK_BYTES = 64L << 20; // kích thước đoạn mục tiêu
+    private static final int SCAN_BYTES = 1 << 16;
+    static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private final PgnGame game = new PgnGame();
+    private final Consumer<PgnGame> consumer;
+    private long games;
+
+    private PgnReader(Consumer<PgnGame> consumer) {
+        this.consumer = consumer;
+    }
+
+    // --- ĐỌC TỆP ---
+    // Đọc tuần tự trên luồng gọi, consumer nhận các ván theo thứ tự trong tệp.
+    // Trả về số ván đã đọc.
+    public static long read(Path file, Consumer<PgnGame> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = split(channel, 1);
+            PgnReader reader = new PgnReader(consumer);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                reader.parse(map(channel, bounds[i], bounds[i + 1]), bounds[i]);
+            }
+            return reader.games;
+        }
+    }
+
+    // Đọc song song trên threads luồng, consumer phải an toàn khi gọi đồng thời
+    public static long readParallel(Path file, int threads, Consumer<PgnGame> consumer) throws IOException {
+        if (threads <= 1) {
+            return read(file, consumer);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = split(channel, threads);
+
+            // Mỗi luồng dùng lại một PgnReader (Board, PgnGame) cho mọi đoạn nó xử lý
+            ThreadLocal<PgnReader> readers = ThreadLocal.withInitial(() -> new PgnReader(consumer));
+            AtomicLong total = new AtomicLong();
+            List<RecursiveTask<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                final long start = bounds[i];
+                final long end = bounds[i + 1];
+                tasks.add(new RecursiveTask<Void>() {
+                    @Override
+                    protected Void compute() {
+                        PgnReader reader = readers.get();
+                        long before = reader.games;
+                        try {
+                            reader.parse(map(channel, start, end), start);
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                        total.addAndGet(reader.games - before);
+                        return null;
+                    }
+                });
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.submit(() -> RecursiveTask.invokeAll(tasks)).join();
+            } catch (RuntimeException e) {
+                for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                    if (cause instanceof IOException)
+                        throw (IOException) cause;
+                }
+                throw e;
+            } finally {
+                pool.shutdown();
+            }
+            return total.get();
+        }
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE)
+            throw new IOException("Đoạn PGN quá lớn (không tìm thấy ranh giới ván) tại byte " + start);
+        return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+    }
+
+    // --- CHIA ĐOẠN ---
+    // Ranh giới các đoạn: mỗi đoạn khoảng CHUNK_BYTES (ít nhất 4 đoạn mỗi luồng khi chạy
+    // song song), đầu đoạn luôn là đầu một ván
+    private static long[] split(FileChannel channel, int threads) throws IOException {
+        long size = channel.size();
+        long parts = Math.max((size + CHUNK_BYTES - 1) / CHUNK_BYTES, (threads > 1) ? 4L * threads : 1);
+        long step = Math.max(1, size / parts);
+
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long last = 0;
+        for (long target = step; target < size; target += step) {
+            if (target <= last)
+                continue;
+            long start = nextGameStart(channel, target, size);
+            if (start >= size)
+                break;
+            if (start > last) {
+                bounds.add(start);
+                last = start;
+            }
+        }
+        bounds.add(size);
+
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = bounds.get(i);
+        }
+        return result;
+    }
+
+    // Vị trí đầu tiên từ pos có dấu '[' mở đầu dòng ngay sau một dòng trống
+    // (đầu phần tiêu đề của ván mới), size nếu không còn
+    private static long nextGameStart(FileChannel channel, long pos, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(SCAN_BYTES);
+        boolean seenNewline = false; // dòng đầu tiên có thể bị cắt giữa chừng
+        boolean lineBlank = false;
+        boolean previousBlank = false;
+
+        while (pos < size) {
+            window.clear();
+            int n = channel.read(window, pos);
+            if (n <= 0)
+                break;
+            for (int i = 0; i < n; i++) {
+                byte b = window.get(i);
+                if (b == '\n') {
+                    previousBlank = seenNewline && lineBlank;
+                    seenNewline = true;
+                    lineBlank = true;
+                } else if (b == '[' && seenNewline && lineBlank && previousBlank) {
+                    return pos + i;
+                } else if (b != '\r' && b != ' ' && b != '\t') {
+                    lineBlank = false;
+                }
+            }
+            pos += n;
+        }
+        return size;
+    }
+
+    // --- TÁCH TỪ VÀ GIẢI NƯỚC ĐI ---
+    // Đọc mọi ván trong buf (offset: vị trí của buf trong tệp)
+    private void parse(ByteBuffer buf, long offset) {
+        int end = buf.limit();
+        int pos = 0;
+        boolean started = false; // ván hiện tại đã có thẻ hoặc nước đi
+        boolean inMoves = false; // đã sang phần nước đi
+
+        while (pos < end) {
+            byte c = buf.get(pos);
+            if (c <= ' ') {
+                pos++;
+                continue;
+            }
+
+            switch (c) {
+            case '[':
+                if (inMoves) {
+                    finish();
+                    inMoves = false;
+                    started = false;
+                }
+                if (!started) {
+                    game.reset(buf, offset + pos);
+                    started = true;
+                }
+                pos = readTag(buf, pos, end);
+                continue;
+            case '{':
+                pos = skipPast(buf, pos + 1, end, '}');
+                continue;
+            case ';':
+            case '%':
+                pos = skipPast(buf, pos + 1, end, '\n');
+                continue;
+            case '(':
+                pos = skipVariation(buf, pos, end);
+                continue;
+            case ')':
+                pos++;
+                continue;
+            case '$':
+                pos++;
+                while (pos < end && buf.get(pos) >= '0' && buf.get(pos) <= '9') {
+                    pos++;
+                }
+                continue;
+            default:
+                break;
+            }
+
+            // Một từ của phần nước đi: số thứ tự, kết quả hoặc SAN
+            int start = pos;
+            while (pos < end && !isDelimiter(buf.get(pos))) {
+                pos++;
+            }
+            if (!started) {
+                game.reset(buf, offset + start);
+                started = true;
+            }
+            if (!inMoves) {
+                startMoves();
+                inMoves = true;
+            }
+
+            int result = resultOf(buf, start, pos);
+            if (result >= 0) {
+                game.setResult(result);
+                finish();
+                inMoves = false;
+                started = false;
+                continue;
+            }
+
+            // Bỏ số thứ tự nước đi ("12." "12..." "..." hoặc dính liền "12.e4"), trừ 0-0 / 0-0-0
+            if (c == '.' || (c >= '0' && c <= '9' && !(c == '0' && start + 1 < pos && buf.get(start + 1) == '-'))) {
+                while (start < pos && ((buf.get(start) >= '0' && buf.get(start) <= '9') || buf.get(start) == '.')) {
+                    start++;
+                }
+                if (start == pos)
+                    continue;
+            }
+            playSan(buf, start, pos);
+        }
+
+        if (started) {
+            if (!inMoves)
+                startMoves();
+            finish();
+        }
+    }
+
+    private static boolean isDelimiter(byte c) {
+        return c <= ' ' || c == '{' || c == '(' || c == ')' || c == ';' || c == '$' || c == '[';
+    }
+
+    // Đọc [Tên "Giá trị"], trả về vị trí sau thẻ. Thẻ hỏng bị bỏ qua đến hết dòng.
+    private int readTag(ByteBuffer buf, int pos, int end) {
+        int nameStart = pos + 1;
+        int nameEnd = nameStart;
+        while (nameEnd < end && buf.get(nameEnd) > ' ' && buf.get(nameEnd) != '"') {
+            nameEnd++;
+        }
+        int i = nameEnd;
+        while (i < end && buf.get(i) != '"' && buf.get(i) != '\n') {
+            i++;
+        }
+        if (i >= end || buf.get(i) != '"')
+            return skipPast(buf, pos, end, '\n');
+
+        int valueStart = i + 1;
+        int valueEnd = valueStart;
+        while (valueEnd < end && buf.get(valueEnd) != '"' && buf.get(valueEnd) != '\n') {
+            if (buf.get(valueEnd) == '\\')
+                valueEnd++; // bỏ qua ký tự được thoát
+            valueEnd++;
+        }
+        if (valueEnd >= end || buf.get(valueEnd) != '"')
+            return skipPast(buf, pos, end, '\n');
+
+        game.addTag(nameStart, nameEnd, valueStart, valueEnd);
+        i = valueEnd + 1;
+        while (i < end && buf.get(i) != ']' && buf.get(i) != '\n') {
+            i++;
+        }
+        return (i < end && buf.get(i) == ']') ? i + 1 : i;
+    }
+
+    private static int skipPast(ByteBuffer buf, int pos, int end, char terminator) {
+        while (pos < end && buf.get(pos) != terminator) {
+            pos++;
+        }
+        return Math.min(pos + 1, end);
+    }
+
+    // Bỏ qua biến (có thể lồng nhau, có chú thích bên trong)
+    private static int skipVariation(ByteBuffer buf, int pos, int end) {
+        int depth = 0;
+        while (pos < end) {
+            byte c = buf.get(pos++);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (--depth == 0)
+                    return pos;
+            } else if (c == '{') {
+                pos = skipPast(buf, pos, end, '}');
+            } else if (c == ';') {
+                pos = skipPast(buf, pos, end, '\n');
+            }
+        }
+        return end;
+    }
+
+    // Kết quả nếu từ là "1-0", "0-1", "1/2-1/2" hoặc "*", ngược lại -1
+    private static int resultOf(ByteBuffer buf, int start, int end) {
+        int length = end - start;
+        if (length == 1 && buf.get(start) == '*')
+            return PgnGame.RESULT_NONE;
+        if (length == 3 && buf.get(start + 1) == '-') {
+            if (buf.get(start) == '1' && buf.get(start + 2) == '0')
+                return PgnGame.WHITE_WINS;
+            if (buf.get(start) == '0' && buf.get(start + 2) == '1')
+                return PgnGame.BLACK_WINS;
+        }
+        if (length == 7 && buf.get(start) == '1' && buf.get(start + 1) == '/' && buf.get(start + 3) == '-')
+            return PgnGame.DRAW;
+        return -1;
+    }
+
+    // Thế cờ bắt đầu: thẻ FEN nếu có, ngược lại thế cờ ban đầu
+    private void startMoves() {
+        Board board = game.getBoard();
+        int fenTag = game.findTag("FEN");
+        try {
+            board.setFen(fenTag >= 0 ? game.tagValue(fenTag) : START_FEN);
+        } catch (IllegalArgumentException e) {
+            board.setFen(START_FEN);
+            game.setError(e.getMessage());
+        }
+    }
+
+    // Giải SAN và đi nước đó; sau nước lỗi đầu tiên bỏ qua phần còn lại của ván
+    private void playSan(ByteBuffer buf, int start, int end) {
+        if (game.hasError())
+            return;
+        Board board = game.getBoard();
+        int move = San.parse(buf, start, end, board);
+        if (move == PackedMove.NONE) {
+            byte[] text = new byte[end - start];
+            for (int i = 0; i < text.length; i++) {
+                text[i] = buf.get(start + i);
+            }
+            game.setError("Nước đi không hợp lệ \"" + new String(text) + "\" sau "
+                    + game.getMoves().size() + " nửa nước");
+            return;
+        }
+        board.makeMove(move);
+        game.moveList().add(move);
+    }
+
+    private void finish() {
+        games++;
+        consumer.accept(game);
+    }
+
+    // --- DÒNG LỆNH ---
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Cách dùng: PgnReader <tệp .pgn> [--threads N]");
+            return;
+        }
+        Path file = Paths.get(args[0]);
+        int threads = 1;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            }
+        }
+
+        AtomicLong plies = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long games = readParallel(file, threads, game -> {
+            plies.addAndGet(game.getMoves().size());
+            if (game.hasError() && errors.incrementAndGet() <= 10) {
+                System.out.println("Lỗi ở byte " + game.getOffset() + ": " + game.getError());
+            }
+        });
+        double seconds = Math.max(1, System.nanoTime() - start) / 1e9;
+        System.out.printf("%d ván, %d nửa nước, %d ván lỗi, %.2f s (%.0f ván/giây, %.0f nửa nước/giây)%n",
+                games, plies.get(), errors.get(), seconds, games / seconds, plies.get() / seconds);
+    }
+}
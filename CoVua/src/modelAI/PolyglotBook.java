@@ -0,0 +1,235 @@
+package modelAI;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import model.Board;
+import model.Piece;
+import model.PieceColor;
+
+// Sách khai cuộc định dạng Polyglot (.bin), đọc qua ánh xạ bộ nhớ (mmap): không chép
+// sách lên heap, hệ điều hành chỉ nạp các trang được chạm tới khi tìm kiếm nhị phân.
+//
+// Mỗi mục 16 byte big-endian, sắp xếp theo khóa:
+//  key (8) | move (2) | weight (2) | learn (4)
+// move: bit 0-2 cột đến, 3-5 hàng đến, 6-8 cột đi, 9-11 hàng đi (hàng 0 = hàng 1),
+//       12-14 phong cấp (1 mã .. 4 hậu). Nhập thành ghi là vua "ăn" xe (e1h1).
+//
+// Khóa Polyglot dùng bảng Random64 chuẩn (781 số, PolyglotRandom) thay vì Zobrist của
+// Board. Có thể thay bằng bảng đọc từ tệp nguồn chứa các hằng số 0x... theo đúng thứ tự
+// (-Dcovua.polyglot.keys=<tệp>); bảng đọc từ tệp được kiểm tra bằng khóa chuẩn của thế cờ
+// ban đầu.
+public class PolyglotBook {
+    public static final long START_POSITION_KEY = 0x463B96181691FC9CL;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int RANDOM_COUNT = 781;
+    private static final int CASTLING_OFFSET = 768;
+    private static final int EN_PASSANT_OFFSET = 772;
+    private static final int TURN_OFFSET = 780;
+    private static final Pattern HEX_KEY = Pattern.compile("0[xX]([0-9A-Fa-f]{16})");
+
+    private static long[] defaultKeys;
+
+    private final ByteBuffer data;
+    private final int entries;
+    private final long[] random;
+
+    private PolyglotBook(ByteBuffer data, long[] random) {
+        this.data = data;
+        this.entries = data.capacity() / ENTRY_BYTES;
+        this.random = random;
+    }
+
+    // --- MỞ SÁCH ---
+    public static PolyglotBook open(Path book) throws IOException {
+        return open(book, defaultKeys());
+    }
+
+    public static PolyglotBook open(Path book, long[] random64) throws IOException {
+        try (FileChannel channel = FileChannel.open(book, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Sách khai cuộc quá lớn (tối đa 2 GB): " + book);
+            }
+            // Vùng ánh xạ vẫn dùng được sau khi đóng kênh
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size - size % ENTRY_BYTES);
+            return new PolyglotBook(map, random64);
+        }
+    }
+
+    // Sách theo -Dcovua.book=<tệp .bin>, null nếu không cấu hình hoặc không mở được
+    public static PolyglotBook openDefault() {
+        String path = System.getProperty("covua.book");
+        if (path == null) {
+            return null;
+        }
+        try {
+            return open(Paths.get(path));
+        } catch (IOException e) {
+            System.err.println("Không mở được sách khai cuộc " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    public int size() {
+        return entries;
+    }
+
+    // --- BẢNG RANDOM64 ---
+    // Lấy 781 hằng số 0x... đầu tiên trong tệp nguồn
+    public static long[] loadKeys(InputStream source) throws IOException {
+        String text = new String(source.readAllBytes(), StandardCharsets.US_ASCII);
+        long[] keys = new long[RANDOM_COUNT];
+        int count = 0;
+        Matcher m = HEX_KEY.matcher(text);
+        while (count < RANDOM_COUNT && m.find()) {
+            keys[count++] = Long.parseUnsignedLong(m.group(1), 16);
+        }
+        if (count < RANDOM_COUNT) {
+            throw new IOException("Bảng Random64 cần " + RANDOM_COUNT + " số, chỉ tìm thấy " + count);
+        }
+        if (computeKey(new Board(), keys) != START_POSITION_KEY) {
+            throw new IOException("Bảng Random64 không khớp khóa chuẩn của thế cờ ban đầu");
+        }
+        return keys;
+    }
+
+    private static synchronized long[] defaultKeys() throws IOException {
+        if (defaultKeys == null) {
+            String path = System.getProperty("covua.polyglot.keys");
+            if (path != null) {
+                try (InputStream in = Files.newInputStream(Paths.get(path))) {
+                    defaultKeys = loadKeys(in);
+                }
+            } else {
+                defaultKeys = PolyglotRandom.KEYS;
+            }
+        }
+        return defaultKeys;
+    }
+
+    // --- KHÓA POLYGLOT ---
+    public long key(Board board) {
+        return computeKey(board, random);
+    }
+
+    static long computeKey(Board board, long[] random) {
+        long key = 0L;
+        for (PieceColor color : PieceColor.values()) {
+            int white = (color == PieceColor.WHITE) ? 1 : 0;
+            for (int type = Piece.PAWN; type <= Piece.KING; type++) {
+                long bb = board.getPieces(color, type);
+                while (bb != 0) {
+                    int sq = Long.numberOfTrailingZeros(bb);
+                    bb &= bb - 1;
+                    // Polyglot: loại quân đen chẵn, trắng lẻ; hàng 0 là hàng 1 (ngược với sq của Board)
+                    int kind = 2 * type + white;
+                    key ^= random[64 * kind + 8 * (7 - (sq >>> 3)) + (sq & 7)];
+                }
+            }
+        }
+
+        // Quyền nhập thành: thứ tự KQkq giống Board.CASTLE_*
+        int rights = board.getCastlingRights();
+        for (int i = 0; i < 4; i++) {
+            if ((rights & (1 << i)) != 0)
+                key ^= random[CASTLING_OFFSET + i];
+        }
+
+        // Bắt tốt qua đường: chỉ tính khi có tốt của bên đi đứng cạnh tốt vừa đi 2 ô
+        Position ep = board.getEnPassantTarget();
+        PieceColor side = board.getSideToMove();
+        if (ep != null && (hasPiece(board, side, Piece.PAWN, ep.row, ep.col - 1)
+                || hasPiece(board, side, Piece.PAWN, ep.row, ep.col + 1))) {
+            key ^= random[EN_PASSANT_OFFSET + ep.col];
+        }
+
+        if (side == PieceColor.WHITE) {
+            key ^= random[TURN_OFFSET];
+        }
+        return key;
+    }
+
+    private static boolean hasPiece(Board board, PieceColor color, int type, int row, int col) {
+        return board.inBounds(row, col) && (board.getPieces(color, type) & (1L << (row * 8 + col))) != 0;
+    }
+
+    // --- TRA CỨU ---
+    // Chỉ số mục đầu tiên có khóa >= key (so sánh không dấu)
+    private int lowerBound(long key) {
+        int lo = 0;
+        int hi = entries;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(data.getLong(mid * ENTRY_BYTES), key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Chọn ngẫu nhiên theo trọng số một nước đi trong sách cho thế cờ hiện tại.
+    // Trả về PackedMove hợp lệ của Board, hoặc NONE nếu thế cờ không có trong sách.
+    public int probe(Board board, Random rnd) {
+        long key = key(board);
+        IntMoveList legal = new IntMoveList();
+        board.generateLegalMoves(board.getSideToMove(), legal);
+
+        int totalWeight = 0;
+        int chosen = PackedMove.NONE;
+        for (int i = lowerBound(key); i < entries && data.getLong(i * ENTRY_BYTES) == key; i++) {
+            int offset = i * ENTRY_BYTES;
+            int move = toPackedMove(data.getShort(offset + 8) & 0xFFFF, legal);
+            int weight = data.getShort(offset + 10) & 0xFFFF;
+            if (move == PackedMove.NONE || weight == 0) {
+                continue;
+            }
+            // Lấy mẫu theo trọng số trong một lượt duyệt
+            totalWeight += weight;
+            if (rnd.nextInt(totalWeight) < weight) {
+                chosen = move;
+            }
+        }
+        return chosen;
+    }
+
+    private static int toPackedMove(int bookMove, IntMoveList legal) {
+        int toCol = bookMove & 7;
+        int toRow = 7 - ((bookMove >>> 3) & 7);
+        int fromCol = (bookMove >>> 6) & 7;
+        int fromRow = 7 - ((bookMove >>> 9) & 7);
+        int promotion = (bookMove >>> 12) & 7; // 1 mã .. 4 hậu = Piece.KNIGHT .. Piece.QUEEN
+        int from = fromRow * 8 + fromCol;
+        int to = toRow * 8 + toCol;
+
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            if (PackedMove.from(move) != from) {
+                continue;
+            }
+            int target = PackedMove.to(move);
+            // Nhập thành: sách ghi ô của xe, Board ghi ô đích của vua
+            if (PackedMove.isCastle(move) && fromCol == 4 && (toCol == 7 || toCol == 0)) {
+                target = (PackedMove.to(move) & 7) == 6 ? fromRow * 8 + 7 : fromRow * 8;
+            }
+            if (target == to && PackedMove.promotion(move) == promotion) {
+                return move;
+            }
+        }
+        return PackedMove.NONE;
+    }
+}
@@ -0,0 +1,232 @@
+package modelAI;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import model.Bitboards;
+import model.Board;
+import model.Piece;
+import model.PieceColor;
+
+// Ký hiệu đại số chuẩn (SAN) như "Nbd7", "exd5", "e8=Q+", "O-O".
+//
+// Khi đọc, không sinh toàn bộ nước đi hợp lệ: chỉ xét các quân cùng loại có thể tới ô
+// đến (tra bitboard ngược từ ô đến), rồi kiểm tra từng ứng viên bằng Board.isValidMove
+// (cùng phép kiểm tra mà generateLegalMoves dùng).
+public final class San {
+
+    private San() {
+    }
+
+    // --- ĐỌC ---
+    // Nước đi hợp lệ của bên đang đi khớp với SAN trong buf[start, end), NONE nếu không có
+    // hoặc mơ hồ. Bỏ qua các ký hiệu chiếu / đánh giá ở cuối (+ # ! ?).
+    public static int parse(ByteBuffer buf, int start, int end, Board board) {
+        while (end > start && isSuffix(buf.get(end - 1))) {
+            end--;
+        }
+        if (end - start < 2)
+            return PackedMove.NONE;
+
+        PieceColor side = board.getSideToMove();
+        int first = buf.get(start);
+
+        // Nhập thành: O-O, O-O-O (chấp nhận cả số 0)
+        if (first == 'O' || first == '0') {
+            int homeRow = (side == PieceColor.WHITE) ? 7 : 0;
+            int from = Bitboards.square(homeRow, 4);
+            if (end - start == 3)
+                return resolve(board, side, Piece.KING, 1L << from, from + 2, 0);
+            if (end - start == 5)
+                return resolve(board, side, Piece.KING, 1L << from, from - 2, 0);
+            return PackedMove.NONE;
+        }
+
+        // Phong cấp: "e8=Q" hoặc "e8Q"
+        int promotion = 0;
+        int last = buf.get(end - 1);
+        if (last != 'K' && pieceType(last) > Piece.PAWN) {
+            promotion = pieceType(last);
+            end--;
+            if (end > start && buf.get(end - 1) == '=')
+                end--;
+        }
+        if (end - start < 2)
+            return PackedMove.NONE;
+
+        int toCol = buf.get(end - 2) - 'a';
+        int toRow = '8' - buf.get(end - 1);
+        if (toCol < 0 || toCol > 7 || toRow < 0 || toRow > 7)
+            return PackedMove.NONE;
+
+        int type = Piece.PAWN;
+        int i = start;
+        if (pieceType(first) > Piece.PAWN) {
+            type = pieceType(first);
+            i++;
+        }
+
+        // Phần phân biệt giữa loại quân và ô đến: cột và/hoặc hàng, 'x' khi ăn quân
+        long fromMask = -1L;
+        boolean fileGiven = false;
+        for (; i < end - 2; i++) {
+            int ch = buf.get(i);
+            if (ch >= 'a' && ch <= 'h') {
+                fromMask &= Bitboards.FILE_A << (ch - 'a');
+                fileGiven = true;
+            } else if (ch >= '1' && ch <= '8') {
+                fromMask &= Bitboards.RANK_8 << (8 * ('8' - ch));
+            } else if (ch != 'x' && ch != '-' && ch != ':') {
+                return PackedMove.NONE;
+            }
+        }
+        // Tốt không ghi cột đi là tốt tiến thẳng
+        if (type == Piece.PAWN && !fileGiven)
+            fromMask &= Bitboards.FILE_A << toCol;
+
+        return resolve(board, side, type, fromMask, Bitboards.square(toRow, toCol), promotion);
+    }
+
+    public static int parse(String san, Board board) {
+        byte[] bytes = san.getBytes(StandardCharsets.US_ASCII);
+        return parse(ByteBuffer.wrap(bytes), 0, bytes.length, board);
+    }
+
+    private static boolean isSuffix(int ch) {
+        return ch == '+' || ch == '#' || ch == '!' || ch == '?';
+    }
+
+    private static int pieceType(int ch) {
+        switch (ch) {
+        case 'N':
+            return Piece.KNIGHT;
+        case 'B':
+            return Piece.BISHOP;
+        case 'R':
+            return Piece.ROOK;
+        case 'Q':
+            return Piece.QUEEN;
+        case 'K':
+            return Piece.KING;
+        default:
+            return Piece.PAWN;
+        }
+    }
+
+    // Đúng một ứng viên hợp lệ thì trả về nước đi của nó
+    private static int resolve(Board board, PieceColor side, int type, long fromMask, int to, int promotion) {
+        long candidates = candidates(board, side, type, to) & fromMask;
+        int toRow = Bitboards.rowOf(to);
+        int toCol = Bitboards.colOf(to);
+        int found = PackedMove.NONE;
+
+        while (candidates != 0) {
+            int from = Long.numberOfTrailingZeros(candidates);
+            candidates &= candidates - 1;
+            if (!board.isValidMove(Bitboards.rowOf(from), Bitboards.colOf(from), toRow, toCol, side))
+                continue;
+            if (found != PackedMove.NONE)
+                return PackedMove.NONE; // mơ hồ: SAN thiếu phần phân biệt
+
+            int move = PackedMove.of(from, to, board.getPiece(Bitboards.rowOf(from), Bitboards.colOf(from)),
+                    board.getPiece(toRow, toCol));
+            if (promotion != 0) {
+                if (PackedMove.promotion(move) == 0)
+                    return PackedMove.NONE;
+                move = PackedMove.withPromotion(move, promotion);
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    // Các quân loại type của side có thể tới ô to (chưa kiểm tra tự chiếu)
+    private static long candidates(Board board, PieceColor side, int type, int to) {
+        long own = board.getPieces(side, type);
+        long occupied = board.getOccupied();
+        switch (type) {
+        case Piece.PAWN:
+            // Ăn chéo (kể cả bắt qua đường), tiến 1 hoặc 2 ô
+            PieceColor opponent = (side == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+            long pushes = (side == PieceColor.WHITE) ? (1L << to << 8) | (1L << to << 16)
+                    : (1L << to >>> 8) | (1L << to >>> 16);
+            return (Bitboards.PAWN_ATTACKS[opponent.ordinal()][to] | pushes) & own;
+        case Piece.KNIGHT:
+            return Bitboards.KNIGHT_ATTACKS[to] & own;
+        case Piece.BISHOP:
+            return Bitboards.bishopAttacks(to, occupied) & own;
+        case Piece.ROOK:
+            return Bitboards.rookAttacks(to, occupied) & own;
+        case Piece.QUEEN:
+            return Bitboards.queenAttacks(to, occupied) & own;
+        default:
+            // Vua: kể cả nhập thành (đi 2 ô)
+            int kingSq = board.getKingSquare(side);
+            return (kingSq >= 0) ? 1L << kingSq : 0L;
+        }
+    }
+
+    // --- GHI ---
+    // SAN của move trong thế cờ hiện tại (gọi trước khi đi nước đó)
+    public static String toString(int move, Board board) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        PieceColor side = board.getSideToMove();
+        StringBuilder sb = new StringBuilder(8);
+
+        if (PackedMove.isCastle(move)) {
+            sb.append((to & 7) == 6 ? "O-O" : "O-O-O");
+        } else {
+            int type = PackedMove.movedType(move);
+            if (type == Piece.PAWN) {
+                if (PackedMove.isCapture(move))
+                    sb.append((char) ('a' + (from & 7)));
+            } else {
+                sb.append("PNBRQK".charAt(type));
+                appendDisambiguation(sb, board, side, type, from, to);
+            }
+            if (PackedMove.isCapture(move))
+                sb.append('x');
+            sb.append((char) ('a' + (to & 7))).append((char) ('8' - (to >>> 3)));
+            if (PackedMove.promotion(move) != 0)
+                sb.append('=').append("PNBRQK".charAt(PackedMove.promotion(move)));
+        }
+
+        // Chiếu / chiếu hết
+        board.makeMove(move);
+        PieceColor opponent = board.getSideToMove();
+        if (board.isInCheck(opponent)) {
+            IntMoveList replies = new IntMoveList();
+            board.generateLegalMoves(opponent, replies);
+            sb.append(replies.isEmpty() ? '#' : '+');
+        }
+        board.unmakeMove(move);
+        return sb.toString();
+    }
+
+    // Thêm cột, hàng hoặc cả hai khi quân khác cùng loại cũng đi được tới ô to
+    private static void appendDisambiguation(StringBuilder sb, Board board, PieceColor side, int type, int from, int to) {
+        long others = candidates(board, side, type, to) & ~(1L << from);
+        boolean sameFile = false;
+        boolean sameRank = false;
+        boolean ambiguous = false;
+        while (others != 0) {
+            int sq = Long.numberOfTrailingZeros(others);
+            others &= others - 1;
+            if (!board.isValidMove(sq >>> 3, sq & 7, to >>> 3, to & 7, side))
+                continue;
+            ambiguous = true;
+            sameFile |= (sq & 7) == (from & 7);
+            sameRank |= (sq >>> 3) == (from >>> 3);
+        }
+        if (!ambiguous)
+            return;
+        if (!sameFile) {
+            sb.append((char) ('a' + (from & 7)));
+        } else if (!sameRank) {
+            sb.append((char) ('8' - (from >>> 3)));
+        } else {
+            sb.append((char) ('a' + (from & 7))).append((char) ('8' - (from >>> 3)));
+        }
+    }
+}
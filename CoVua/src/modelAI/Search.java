@@ -0,0 +1,599 @@
+package modelAI;
+
+import model.Board;
+import model.Piece;
+import model.PieceColor;
+
+// Tìm kiếm negamax alpha-beta với đào sâu lặp (iterative deepening) trên Board,
+// kết thúc ở lá bằng tìm kiếm tĩnh (chỉ nước ăn quân) để không dừng giữa chuỗi trao đổi.
+// Dừng theo độ sâu, số nút hoặc thời gian; có thể dừng từ luồng khác bằng stop().
+// Bảng chuyển vị là tùy chọn và có thể dùng chung giữa nhiều lần tìm kiếm.
+public class Search {
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    public static final int MAX_PLY = 128;
+
+    // Biên cắt tỉa delta: nước ăn quân không thể nâng điểm lên gần alpha thì bỏ qua
+    private static final int DELTA_MARGIN = 200;
+
+    // Cửa sổ hẹp quanh điểm của vòng trước, mở rộng gấp đôi mỗi lần trượt ra ngoài
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+    // Nước yên lặng từ thứ tự này trở đi được tìm nông hơn
+    private static final int LMR_MIN_MOVES = 3;
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+
+    private final Board board;
+    private final TranspositionTable tt;
+    private final IntMoveList[] moveLists;
+
+    private volatile boolean stopped;
+    private long nodes;
+    private long maxNodes;
+    private long deadline; // System.nanoTime(), 0 nếu không giới hạn
+    private int iterationBestMove;
+
+    private final MoveOrdering ordering = new MoveOrdering();
+    private final PawnTable pawnTable;
+
+    // Bộ đếm riêng của luồng này, SearchTelemetry cộng dồn khi đọc
+    private final SearchStats stats = new SearchStats();
+    private final SearchTelemetry telemetry = SearchTelemetry.get();
+    private boolean phaseTiming;
+
+    private SearchListener listener;
+    private Tablebase tablebase;
+    private boolean useOrdering = true;
+    private boolean useNullMove = true;
+    private boolean useLateMoveReductions = true;
+    private boolean useAspirationWindows = true;
+
+    // Cấu hình luồng phụ trong tìm kiếm song song (ParallelSearch)
+    private int startDepth = 1;
+    private int rootRotation = 0;
+    private boolean helper = false; // luồng phụ không ghi số liệu của cả lần tìm kiếm (ebf)
+
+    public Search(Board board) {
+        this(board, null);
+    }
+
+    public Search(Board board, TranspositionTable tt) {
+        this(board, tt, new PawnTable(PawnTable.DEFAULT_ENTRIES));
+    }
+
+    // pawnTable thuộc riêng luồng này; truyền lại cùng một bảng cho các lần tìm kiếm sau
+    public Search(Board board, TranspositionTable tt, PawnTable pawnTable) {
+        this.board = board;
+        this.tt = tt;
+        this.pawnTable = pawnTable;
+        this.moveLists = new IntMoveList[MAX_PLY];
+        for (int i = 0; i < MAX_PLY; i++) {
+            moveLists[i] = new IntMoveList();
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public PawnTable getPawnTable() {
+        return pawnTable;
+    }
+
+    // Tắt để so sánh số nút với thứ tự sinh nước đi gốc (chỉ giữ nước từ bảng chuyển vị)
+    public void setMoveOrdering(boolean enabled) {
+        useOrdering = enabled;
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    // Bảng tàn cuộc (có thể null): tra thay cho tìm kiếm khi còn <= 4 quân
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    // --- BẬT / TẮT TÌM KIẾM CHỌN LỌC ---
+    public void setNullMovePruning(boolean enabled) {
+        useNullMove = enabled;
+    }
+
+    public void setLateMoveReductions(boolean enabled) {
+        useLateMoveReductions = enabled;
+    }
+
+    public void setAspirationWindows(boolean enabled) {
+        useAspirationWindows = enabled;
+    }
+
+    // Luồng phụ bắt đầu ở độ sâu lệch nhau và xét nước gốc theo thứ tự xoay vòng
+    // để các luồng không tìm cùng một cây theo cùng một thứ tự.
+    void configureHelper(int helperIndex) {
+        helper = true;
+        startDepth = 1 + (helperIndex % 2);
+        rootRotation = helperIndex;
+    }
+
+    // --- ĐÀO SÂU LẶP ---
+    // Lần tìm kiếm gốc một luồng; với nhiều luồng ParallelSearch tự gọi tt.newSearch()
+    public SearchResult search(SearchLimits limits) {
+        stopped = false;
+        if (tt != null) {
+            tt.newSearch();
+        }
+        return iterate(limits);
+    }
+
+    // Không xóa cờ dừng: stop() gọi trước khi luồng kịp bắt đầu vẫn có hiệu lực.
+    // Không tăng thế hệ của bảng chuyển vị (người gọi đã làm, một lần cho mọi luồng).
+    SearchResult iterate(SearchLimits limits) {
+        telemetry.attach(stats);
+        phaseTiming = telemetry.isPhaseTiming();
+        try {
+            return deepen(limits);
+        } finally {
+            stats.nodes = nodes;
+            telemetry.detach(stats);
+        }
+    }
+
+    private SearchResult deepen(SearchLimits limits) {
+        long start = System.nanoTime();
+        nodes = 0;
+        maxNodes = limits.maxNodes;
+        deadline = (limits.maxTimeMillis > 0) ? start + limits.maxTimeMillis * 1_000_000L : 0;
+        int maxDepth = (limits.maxDepth > 0) ? Math.min(limits.maxDepth, MAX_PLY - 1) : MAX_PLY - 1;
+        ordering.clear();
+
+        IntMoveList roots = new IntMoveList();
+        PieceColor side = board.getSideToMove();
+        board.generateLegalMoves(side, roots);
+        if (roots.isEmpty()) {
+            int score = board.isInCheck(side) ? -MATE : 0;
+            return new SearchResult(PackedMove.NONE, score, 0, 0, elapsedMillis(start));
+        }
+
+        // Thế cờ có trong bảng tàn cuộc: đi ngay nước tốt nhất theo bảng
+        if (tablebase != null) {
+            int move = tablebase.bestMove(board);
+            if (move != PackedMove.NONE) {
+                return new SearchResult(move, tablebase.probeScore(board, 0), 1, 0, elapsedMillis(start));
+            }
+        }
+
+        roots.rotate(rootRotation % roots.size());
+
+        int bestMove = roots.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        long previousIterationNodes = 0;
+
+        for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++) {
+            long iterationStart = nodes;
+            int score = searchAspiration(roots, bestMove, bestScore, depth);
+            if (stopped && completedDepth > 0) {
+                break; // bỏ kết quả của vòng lặp chưa xong
+            }
+
+            bestMove = iterationBestMove;
+            bestScore = score;
+            completedDepth = depth;
+
+            // Hệ số phân nhánh hiệu dụng: số nút vòng này / số nút vòng trước
+            long iterationNodes = nodes - iterationStart;
+            if (previousIterationNodes > 0 && !stopped && !helper) {
+                telemetry.recordBranchingFactor((double) iterationNodes / previousIterationNodes);
+            }
+            previousIterationNodes = iterationNodes;
+
+            if (listener != null && !stopped) {
+                listener.onIteration(new SearchResult(bestMove, bestScore, depth, nodes, elapsedMillis(start)));
+            }
+
+            if (stopped || Math.abs(score) >= MATE - MAX_PLY) {
+                break; // hết giới hạn hoặc đã tìm thấy chiếu hết
+            }
+            // Vòng sau thường tốn nhiều thời gian hơn tất cả các vòng trước cộng lại
+            if (deadline != 0 && System.nanoTime() - start > (deadline - start) / 2) {
+                break;
+            }
+        }
+
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, elapsedMillis(start));
+    }
+
+    // Tìm gốc trong cửa sổ [previousScore - w, previousScore + w]; trượt ra ngoài thì
+    // mở rộng phía bị trượt và tìm lại
+    private int searchAspiration(IntMoveList roots, int previousBest, int previousScore, int depth) {
+        int alpha = -INFINITY;
+        int beta = INFINITY;
+        int window = ASPIRATION_WINDOW;
+        if (useAspirationWindows && depth >= ASPIRATION_MIN_DEPTH) {
+            alpha = Math.max(previousScore - window, -INFINITY);
+            beta = Math.min(previousScore + window, INFINITY);
+        }
+
+        int first = previousBest;
+        while (true) {
+            int score = searchRoot(roots, first, depth, alpha, beta);
+            if (stopped) {
+                return score;
+            }
+            first = iterationBestMove;
+            window *= 2;
+            if (score <= alpha && alpha > -INFINITY) {
+                alpha = Math.max(score - window, -INFINITY);
+            } else if (score >= beta && beta < INFINITY) {
+                beta = Math.min(score + window, INFINITY);
+            } else {
+                return score;
+            }
+        }
+    }
+
+    private int searchRoot(IntMoveList roots, int previousBest, int depth, int alpha, int beta) {
+        iterationBestMove = previousBest;
+
+        // Nước tốt nhất của vòng trước được xét đầu tiên
+        for (int i = 0; i < roots.size(); i++) {
+            if (roots.get(i) == previousBest) {
+                roots.swap(0, i);
+                break;
+            }
+        }
+
+        for (int i = 0; i < roots.size(); i++) {
+            int move = roots.get(i);
+            board.makeMove(move);
+            int score = -alphaBeta(depth - 1, 1, -beta, -alpha, true);
+            board.unmakeMove(move);
+
+            if (stopped) {
+                break;
+            }
+            if (score >= beta) {
+                iterationBestMove = move;
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                iterationBestMove = move;
+            }
+        }
+        return alpha;
+    }
+
+    // --- NEGAMAX ALPHA-BETA ---
+    // allowNull = false ngay sau một nước đi rỗng để không đi hai nước rỗng liên tiếp
+    private int alphaBeta(int depth, int ply, int alpha, int beta, boolean allowNull) {
+        if ((++nodes & 1023) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        // Bảng tàn cuộc cho điểm chính xác, không cần tìm tiếp
+        if (tablebase != null && Long.bitCount(board.getOccupied()) <= Tablebase.MAX_PIECES) {
+            int score = tablebase.probeScore(board, ply);
+            if (score != Tablebase.UNKNOWN) {
+                return Math.max(alpha, Math.min(beta, score));
+            }
+        }
+
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiescence(ply, alpha, beta);
+        }
+
+        // Tra bảng chuyển vị: cắt ngay nếu mục đủ sâu, nếu không thì lấy nước đi tốt nhất đã lưu
+        long key = board.hashKey();
+        int ttMove = PackedMove.NONE;
+        if (tt != null) {
+            long entry = tt.probe(key);
+            stats.ttProbes++;
+            if (entry == 0) {
+                if (tt.isCollision(key)) {
+                    stats.ttCollisions++;
+                }
+            } else {
+                stats.ttHits++;
+                ttMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int ttScore = scoreFromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.BOUND_EXACT
+                            || (bound == TranspositionTable.BOUND_LOWER && ttScore >= beta)
+                            || (bound == TranspositionTable.BOUND_UPPER && ttScore <= alpha)) {
+                        return ttScore;
+                    }
+                }
+            }
+        }
+
+        PieceColor side = board.getSideToMove();
+        boolean inCheck = inCheck(side);
+
+        // Null move: nhường lượt mà vẫn vượt beta thì nước đi thật gần như chắc chắn cũng vượt.
+        // Không dùng khi bị chiếu hoặc chỉ còn tốt và vua (dễ gặp thế bắt buộc bất lợi - zugzwang).
+        if (useNullMove && allowNull && !inCheck && depth >= NULL_MOVE_MIN_DEPTH
+                && beta < MATE - MAX_PLY && hasPieces(side)
+                && evaluate() >= beta) {
+            int reduction = (depth > 6) ? 3 : 2;
+            board.makeNullMove();
+            int score = -alphaBeta(depth - 1 - reduction, ply + 1, -beta, -beta + 1, false);
+            board.undoNullMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+        }
+
+        IntMoveList moves = moveLists[ply];
+        generate(side, Piece.ALL_MOVES, moves);
+        if (moves.isEmpty()) {
+            // Chiếu hết (ưu tiên chiếu hết sớm) hoặc hết nước đi (hòa)
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        // Nước đi từ bảng chuyển vị được xét đầu tiên (chỉ khi nó hợp lệ ở thế này)
+        if (useOrdering) {
+            ordering.score(board, moves, ply, ttMove);
+        } else if (ttMove != PackedMove.NONE) {
+            for (int i = 0; i < moves.size(); i++) {
+                if (moves.get(i) == ttMove) {
+                    moves.swap(0, i);
+                    break;
+                }
+            }
+        }
+
+        int originalAlpha = alpha;
+        int bestMove = PackedMove.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = useOrdering ? ordering.pick(moves, ply, i) : moves.get(i);
+            board.makeMove(move);
+
+            int score;
+            // LMR: nước yên lặng xếp sau được tìm nông hơn với cửa sổ rỗng,
+            // chỉ tìm lại đủ sâu nếu nó vượt alpha
+            if (useLateMoveReductions && i >= LMR_MIN_MOVES && depth >= LMR_MIN_DEPTH && !inCheck
+                    && !PackedMove.isCapture(move) && PackedMove.promotion(move) == 0
+                    && !inCheck(board.getSideToMove())) {
+                int reduction = (i >= 2 * LMR_MIN_MOVES && depth >= 6) ? 2 : 1;
+                score = -alphaBeta(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha, true);
+                if (score > alpha && !stopped) {
+                    score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+                }
+            } else {
+                score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha, true);
+            }
+            board.unmakeMove(move);
+
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                stats.betaCutoffs++;
+                if (i == 0) {
+                    stats.firstMoveCutoffs++;
+                }
+                if (useOrdering) {
+                    ordering.onCutoff(side.ordinal(), move, ply, depth);
+                }
+                store(key, move, beta, depth, ply, TranspositionTable.BOUND_LOWER);
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+            }
+        }
+
+        store(key, bestMove, alpha, depth, ply,
+                alpha > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER);
+        return alpha;
+    }
+
+    // Còn quân khác ngoài tốt và vua
+    private boolean hasPieces(PieceColor side) {
+        return (board.getOccupancy(side) & ~board.getPieces(side, Piece.PAWN) & ~board.getPieces(side, Piece.KING)) != 0;
+    }
+
+    // --- TÌM KIẾM TĨNH ---
+    // Chỉ xét nước ăn quân (hoặc mọi nước thoát chiếu khi đang bị chiếu).
+    // Bên đi có thể "đứng yên" với điểm đánh giá tĩnh (stand pat).
+    private int quiescence(int ply, int alpha, int beta) {
+        stats.quiescenceNodes++;
+        if ((++nodes & 1023) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+
+        PieceColor side = board.getSideToMove();
+        boolean inCheck = inCheck(side);
+        IntMoveList moves = moveLists[ply];
+        int standPat = 0;
+
+        if (inCheck) {
+            generate(side, Piece.ALL_MOVES, moves);
+            if (moves.isEmpty()) {
+                return -MATE + ply;
+            }
+        } else {
+            standPat = evaluate();
+            if (standPat >= beta) {
+                return beta;
+            }
+            // Delta: kể cả ăn được hậu cũng không đạt alpha
+            if (standPat + Evaluator.PIECE_VALUES[Piece.QUEEN] + DELTA_MARGIN < alpha) {
+                return alpha;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+            generate(side, Piece.CAPTURES, moves);
+        }
+
+        ordering.score(board, moves, ply, PackedMove.NONE);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = ordering.pick(moves, ply, i);
+
+            if (!inCheck && PackedMove.promotion(move) == 0) {
+                if (standPat + Evaluator.PIECE_VALUES[PackedMove.capturedType(move)] + DELTA_MARGIN <= alpha) {
+                    continue;
+                }
+                if (board.see(move) < 0) {
+                    continue; // trao đổi thua vật chất
+                }
+            }
+
+            board.makeMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha);
+            board.unmakeMove(move);
+
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return beta;
+            }
+            if (score > alpha) {
+                alpha = score;
+            }
+        }
+        return alpha;
+    }
+
+    // --- BẢNG CHUYỂN VỊ ---
+    private void store(long key, int move, int score, int depth, int ply, int bound) {
+        if (tt != null) {
+            tt.store(key, move, scoreToTable(score, ply), depth, bound);
+        }
+    }
+
+    // Điểm chiếu hết lưu theo khoảng cách từ nút hiện tại, không phải từ gốc
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY)
+            return score + ply;
+        if (score <= -MATE + MAX_PLY)
+            return score - ply;
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY)
+            return score - ply;
+        if (score <= -MATE + MAX_PLY)
+            return score + ply;
+        return score;
+    }
+
+    // --- ĐO THỜI GIAN THEO PHA ---
+    // Chỉ gọi System.nanoTime() khi SearchTelemetry bật đo thời gian
+    private void generate(PieceColor side, int mode, IntMoveList moves) {
+        if (!phaseTiming) {
+            board.generateLegalMoves(side, mode, moves);
+            return;
+        }
+        long t = System.nanoTime();
+        board.generateLegalMoves(side, mode, moves);
+        stats.moveGenNanos += System.nanoTime() - t;
+    }
+
+    private int evaluate() {
+        if (!phaseTiming) {
+            return Evaluator.evaluate(board, pawnTable);
+        }
+        long t = System.nanoTime();
+        int score = Evaluator.evaluate(board, pawnTable);
+        stats.evalNanos += System.nanoTime() - t;
+        return score;
+    }
+
+    private boolean inCheck(PieceColor side) {
+        if (!phaseTiming) {
+            return board.isInCheck(side);
+        }
+        long t = System.nanoTime();
+        boolean check = board.isInCheck(side);
+        stats.checkNanos += System.nanoTime() - t;
+        return check;
+    }
+
+    private void checkLimits() {
+        stats.nodes = nodes; // chuyển số nút cho SearchTelemetry theo lô
+        if (maxNodes > 0 && nodes >= maxNodes) {
+            stopped = true;
+        }
+        if (deadline != 0 && System.nanoTime() >= deadline) {
+            stopped = true;
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000L;
+    }
+
+    // --- ĐO HỆ SỐ PHÂN NHÁNH ---
+    // Tìm lại từ đầu ở từng độ sâu, in số nút, thời gian và hệ số phân nhánh hiệu dụng
+    // (số nút độ sâu d / số nút độ sâu d - 1).
+    // Cách chạy: java modelAI.Search <độ sâu> [--no-null] [--no-lmr] [--no-aspiration] [--no-ordering] [--timing] [nước đi ...]
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Cách dùng: Search <độ sâu> [--no-null] [--no-lmr] [--no-aspiration] [--no-ordering] [--timing] [nước đi ...]");
+            return;
+        }
+
+        int maxDepth = Integer.parseInt(args[0]);
+        boolean nullMove = true, lmr = true, aspiration = true, ordering = true;
+        Board board = new Board();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--no-null")) {
+                nullMove = false;
+            } else if (arg.equals("--no-lmr")) {
+                lmr = false;
+            } else if (arg.equals("--no-aspiration")) {
+                aspiration = false;
+            } else if (arg.equals("--no-ordering")) {
+                ordering = false;
+            } else if (arg.equals("--timing")) {
+                SearchTelemetry.get().setPhaseTiming(true);
+            } else {
+                int move = PackedMove.parse(arg, board);
+                if (move == PackedMove.NONE) {
+                    System.out.println("Nước đi không hợp lệ: " + arg);
+                    return;
+                }
+                board.makeMove(move);
+            }
+        }
+
+        long previousNodes = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            Search search = new Search(board.cloneBoard(), new TranspositionTable(64));
+            search.setNullMovePruning(nullMove);
+            search.setLateMoveReductions(lmr);
+            search.setAspirationWindows(aspiration);
+            search.setMoveOrdering(ordering);
+            SearchResult result = search.search(SearchLimits.depth(depth));
+            String ebf = (previousNodes > 0) ? String.format("%.2f", (double) result.nodes / previousNodes) : "-";
+            System.out.println(result + " ebf " + ebf);
+            previousNodes = result.nodes;
+        }
+        System.out.println(SearchTelemetry.get().formatLine());
+    }
+}
@@ -0,0 +1,22 @@
+package modelAI;
+
+// Giới hạn cho một lần tìm kiếm. Giá trị 0 nghĩa là không giới hạn.
+public class SearchLimits {
+    public int maxDepth;
+    public long maxNodes;
+    public long maxTimeMillis;
+
+    public SearchLimits(int maxDepth, long maxNodes, long maxTimeMillis) {
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.maxTimeMillis = maxTimeMillis;
+    }
+
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, 0, 0);
+    }
+
+    public static SearchLimits time(long maxTimeMillis) {
+        return new SearchLimits(0, 0, maxTimeMillis);
+    }
+}
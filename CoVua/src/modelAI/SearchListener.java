@@ -0,0 +1,6 @@
+package modelAI;
+
+// Nhận kết quả sau mỗi vòng đào sâu hoàn tất (gọi trên luồng tìm kiếm).
+public interface SearchListener {
+    void onIteration(SearchResult result);
+}
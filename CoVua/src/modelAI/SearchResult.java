@@ -0,0 +1,33 @@
+package modelAI;
+
+// Kết quả tìm kiếm: nước đi tốt nhất (PackedMove) và điểm theo góc nhìn bên đi.
+public class SearchResult {
+    public final int bestMove;
+    public final int score;
+    public final int depth;
+    public final long nodes;
+    public final long timeMillis;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    public boolean hasMove() {
+        return bestMove != PackedMove.NONE;
+    }
+
+    public long nodesPerSecond() {
+        return nodes * 1000 / Math.max(1, timeMillis);
+    }
+
+    @Override
+    public String toString() {
+        String move = hasMove() ? PackedMove.toString(bestMove) : "(none)";
+        return "depth " + depth + " score " + score + " move " + move
+                + " nodes " + nodes + " time " + timeMillis + "ms nps " + nodesPerSecond();
+    }
+}
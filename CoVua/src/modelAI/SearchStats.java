@@ -0,0 +1,43 @@
+package modelAI;
+
+// Bộ đếm của một luồng tìm kiếm. Mỗi Search giữ một đối tượng riêng và chỉ luồng đó
+// ghi vào, nên không cần khóa hay biến volatile trong vòng lặp nóng. SearchTelemetry
+// đọc cộng dồn các bộ đếm này (giá trị đọc từ luồng khác có thể trễ một chút).
+public class SearchStats {
+    long nodes; // cập nhật theo lô (mỗi 1024 nút) và khi kết thúc tìm kiếm
+    long quiescenceNodes;
+    long ttProbes;
+    long ttHits;
+    long ttCollisions; // ô đang chứa thế cờ khác
+    long betaCutoffs;
+    long firstMoveCutoffs; // cắt ngay ở nước đầu tiên: thước đo chất lượng sắp xếp nước đi
+    long moveGenNanos; // chỉ đo khi bật SearchTelemetry.setPhaseTiming(true)
+    long evalNanos;
+    long checkNanos;
+
+    void add(SearchStats other) {
+        nodes += other.nodes;
+        quiescenceNodes += other.quiescenceNodes;
+        ttProbes += other.ttProbes;
+        ttHits += other.ttHits;
+        ttCollisions += other.ttCollisions;
+        betaCutoffs += other.betaCutoffs;
+        firstMoveCutoffs += other.firstMoveCutoffs;
+        moveGenNanos += other.moveGenNanos;
+        evalNanos += other.evalNanos;
+        checkNanos += other.checkNanos;
+    }
+
+    void reset() {
+        nodes = 0;
+        quiescenceNodes = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        ttCollisions = 0;
+        betaCutoffs = 0;
+        firstMoveCutoffs = 0;
+        moveGenNanos = 0;
+        evalNanos = 0;
+        checkNanos = 0;
+    }
+}
@@ -0,0 +1,206 @@
+package modelAI;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Số liệu tìm kiếm toàn tiến trình: cộng dồn SearchStats của mọi Search đang chạy
+// và đã kết thúc. Xem qua JMX (jconsole, VisualVM) hoặc in định kỳ một dòng log.
+//
+// Bật log định kỳ khi khởi động: -Dcovua.telemetry.logSeconds=10
+public class SearchTelemetry implements SearchTelemetryMXBean {
+    public static final String OBJECT_NAME = "CoVua:type=SearchTelemetry";
+
+    private static final long SAMPLE_MILLIS = 1000;
+
+    private static final SearchTelemetry INSTANCE = new SearchTelemetry();
+
+    static {
+        INSTANCE.timer.scheduleAtFixedRate(INSTANCE::sample, SAMPLE_MILLIS, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("Không đăng ký được JMX " + OBJECT_NAME + ": " + e.getMessage());
+        }
+        int logSeconds = Integer.getInteger("covua.telemetry.logSeconds", 0);
+        if (logSeconds > 0) {
+            INSTANCE.startLogging(logSeconds);
+        }
+    }
+
+    private final List<SearchStats> active = new CopyOnWriteArrayList<>();
+    private final SearchStats retired = new SearchStats(); // của các lần tìm kiếm đã xong
+    private volatile boolean phaseTiming;
+    private volatile double branchingFactor;
+
+    // Số nút/giây chỉ do bộ hẹn giờ lấy mẫu, người đọc (JMX, log) dùng chung kết quả
+    // nên không lấy mất khoảng đo của nhau
+    private long sampleNodes;
+    private long sampleNanos = System.nanoTime();
+    private volatile double nodesPerSecond;
+
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search-telemetry");
+        t.setDaemon(true);
+        return t;
+    });
+    private ScheduledFuture<?> logger;
+
+    private SearchTelemetry() {
+    }
+
+    public static SearchTelemetry get() {
+        return INSTANCE;
+    }
+
+    // --- GẮN / THÁO BỘ ĐẾM CỦA MỘT LẦN TÌM KIẾM ---
+    void attach(SearchStats stats) {
+        active.add(stats);
+    }
+
+    synchronized void detach(SearchStats stats) {
+        active.remove(stats);
+        retired.add(stats);
+        stats.reset();
+    }
+
+    // Chỉ luồng chính của lần tìm kiếm gọi (luồng phụ Lazy SMP bắt đầu ở độ sâu lệch nhau)
+    void recordBranchingFactor(double ebf) {
+        branchingFactor = ebf;
+    }
+
+    // Chạy trên bộ hẹn giờ mỗi SAMPLE_MILLIS
+    private void sample() {
+        long nodes = snapshot().nodes;
+        long now = System.nanoTime();
+        nodesPerSecond = (nodes - sampleNodes) * 1e9 / Math.max(1, now - sampleNanos);
+        sampleNodes = nodes;
+        sampleNanos = now;
+    }
+
+    private synchronized SearchStats snapshot() {
+        SearchStats total = new SearchStats();
+        total.add(retired);
+        for (SearchStats stats : active) {
+            total.add(stats);
+        }
+        return total;
+    }
+
+    // --- JMX ---
+    @Override
+    public long getTotalNodes() {
+        return snapshot().nodes;
+    }
+
+    // Trong khoảng lấy mẫu gần nhất (SAMPLE_MILLIS), không phụ thuộc ai đọc
+    @Override
+    public double getNodesPerSecond() {
+        return nodesPerSecond;
+    }
+
+    @Override
+    public double getQuiescenceNodeShare() {
+        SearchStats s = snapshot();
+        return ratio(s.quiescenceNodes, s.nodes);
+    }
+
+    @Override
+    public long getTtProbes() {
+        return snapshot().ttProbes;
+    }
+
+    @Override
+    public long getTtHits() {
+        return snapshot().ttHits;
+    }
+
+    @Override
+    public long getTtCollisions() {
+        return snapshot().ttCollisions;
+    }
+
+    @Override
+    public double getTtHitRate() {
+        SearchStats s = snapshot();
+        return ratio(s.ttHits, s.ttProbes);
+    }
+
+    @Override
+    public double getFirstMoveCutoffRate() {
+        SearchStats s = snapshot();
+        return ratio(s.firstMoveCutoffs, s.betaCutoffs);
+    }
+
+    @Override
+    public double getEffectiveBranchingFactor() {
+        return branchingFactor;
+    }
+
+    @Override
+    public long getMoveGenerationMillis() {
+        return snapshot().moveGenNanos / 1_000_000L;
+    }
+
+    @Override
+    public long getEvaluationMillis() {
+        return snapshot().evalNanos / 1_000_000L;
+    }
+
+    @Override
+    public long getCheckDetectionMillis() {
+        return snapshot().checkNanos / 1_000_000L;
+    }
+
+    @Override
+    public boolean isPhaseTiming() {
+        return phaseTiming;
+    }
+
+    // Đo thời gian từng pha bằng System.nanoTime() quanh mỗi lần gọi, tắt mặc định
+    // vì chi phí đo lớn hơn nhiều so với các bộ đếm
+    @Override
+    public void setPhaseTiming(boolean enabled) {
+        phaseTiming = enabled;
+    }
+
+    @Override
+    public int getActiveSearches() {
+        return active.size();
+    }
+
+    private static double ratio(long part, long total) {
+        return total == 0 ? 0 : (double) part / total;
+    }
+
+    // --- LOG ĐỊNH KỲ ---
+    public String formatLine() {
+        SearchStats s = snapshot();
+        return String.format("nps=%.0f nodes=%d qnodes=%.1f%% tt=%d/%d (%.1f%%, %d va chạm) "
+                + "cắt nước đầu=%.1f%% ebf=%.2f sinh nước=%dms đánh giá=%dms kiểm tra chiếu=%dms",
+                getNodesPerSecond(), s.nodes, ratio(s.quiescenceNodes, s.nodes) * 100,
+                s.ttHits, s.ttProbes, ratio(s.ttHits, s.ttProbes) * 100, s.ttCollisions,
+                ratio(s.firstMoveCutoffs, s.betaCutoffs) * 100, branchingFactor,
+                s.moveGenNanos / 1_000_000L, s.evalNanos / 1_000_000L, s.checkNanos / 1_000_000L);
+    }
+
+    public synchronized void startLogging(long periodSeconds) {
+        stopLogging();
+        logger = timer.scheduleAtFixedRate(() -> System.out.println("[telemetry] " + formatLine()),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopLogging() {
+        if (logger != null) {
+            logger.cancel(false);
+            logger = null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package modelAI;
+
+// Giao diện JMX của SearchTelemetry (tên đối tượng "CoVua:type=SearchTelemetry").
+public interface SearchTelemetryMXBean {
+    long getTotalNodes();
+
+    double getNodesPerSecond();
+
+    double getQuiescenceNodeShare();
+
+    long getTtProbes();
+
+    long getTtHits();
+
+    long getTtCollisions();
+
+    double getTtHitRate();
+
+    double getFirstMoveCutoffRate();
+
+    double getEffectiveBranchingFactor();
+
+    long getMoveGenerationMillis();
+
+    long getEvaluationMillis();
+
+    long getCheckDetectionMillis();
+
+    boolean isPhaseTiming();
+
+    void setPhaseTiming(boolean enabled);
+
+    int getActiveSearches();
+}
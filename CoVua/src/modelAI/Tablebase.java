@@ -0,0 +1,190 @@
+package modelAI;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import model.Board;
+import model.Piece;
+import model.PieceColor;
+
+// Bảng tàn cuộc (KQK, KRK, KPK, KBNK) do TablebaseGenerator tạo, đọc qua ánh xạ bộ nhớ
+// chỉ đọc: tra cứu là một phép tính chỉ số và một lần đọc byte, không chép bảng lên heap.
+//
+// Chỉ số (bên mạnh luôn quy về quân trắng, lật dọc bàn cờ nếu bên mạnh là đen):
+//  ((bên đi * 64 + vua mạnh) * 64 + vua yếu) * 64 + ô quân 1 [* 64 + ô quân 2]
+//  bên đi: 0 = bên mạnh, 1 = bên yếu; ô theo sq của Board.
+//
+// Mỗi thế cờ 1 byte, theo góc nhìn bên đi:
+//  0          hòa (hoặc thế cờ không hợp lệ)
+//  1..127     thắng, chiếu hết sau n nửa nước
+//  0x80 | n   thua, bị chiếu hết sau n nửa nước (0x80 = đang bị chiếu hết)
+public class Tablebase {
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+    public static final int MAX_PIECES = 4;
+
+    static final String[] NAMES = { "KQK", "KRK", "KPK", "KBNK" };
+    static final int[][] PIECES = { { Piece.QUEEN }, { Piece.ROOK }, { Piece.PAWN }, { Piece.BISHOP, Piece.KNIGHT } };
+
+    static final int MAGIC = 0x43565442; // "CVTB"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int LOSS = 0x80;
+
+    private final ByteBuffer[] tables = new ByteBuffer[NAMES.length];
+
+    // --- MỞ BẢNG ---
+    // Mở các tệp <tên>.cvtb có trong thư mục (thiếu tệp nào thì bỏ qua bảng đó). KPK cần
+    // KQK và KRK để tra tiếp sau khi phong cấp nên có KPK mà thiếu hai bảng này là lỗi.
+    public static Tablebase open(Path directory) throws IOException {
+        Tablebase tb = new Tablebase();
+        for (int i = 0; i < NAMES.length; i++) {
+            Path file = directory.resolve(NAMES[i] + ".cvtb");
+            if (Files.exists(file)) {
+                tb.tables[i] = map(file, tableSize(PIECES[i].length));
+            }
+        }
+        if (tb.has("KPK") && (!tb.has("KQK") || !tb.has("KRK"))) {
+            throw new IOException("KPK cần cả KQK và KRK trong " + directory
+                    + " (TablebaseGenerator tạo kèm khi tạo KPK)");
+        }
+        return tb;
+    }
+
+    // Thư mục theo -Dcovua.tablebases=<thư mục>, null nếu không cấu hình hoặc không mở được
+    public static Tablebase openDefault() {
+        String path = System.getProperty("covua.tablebases");
+        if (path == null) {
+            return null;
+        }
+        try {
+            return open(Paths.get(path));
+        } catch (IOException e) {
+            System.err.println("Không mở được bảng tàn cuộc " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static ByteBuffer map(Path file, long entries) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() != HEADER_BYTES + entries || map.getInt(0) != MAGIC || map.getInt(4) != VERSION) {
+                throw new IOException("Tệp bảng tàn cuộc không hợp lệ: " + file);
+            }
+            return map.position(HEADER_BYTES).slice();
+        }
+    }
+
+    public boolean has(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name))
+                return tables[i] != null;
+        }
+        return false;
+    }
+
+    static long tableSize(int extraPieces) {
+        return 2L << (6 * (2 + extraPieces));
+    }
+
+    // --- TRA CỨU ---
+    // Điểm theo góc nhìn bên đi như trong Search (MATE - khoảng cách từ gốc), 0 nếu hòa,
+    // UNKNOWN nếu thế cờ không thuộc bảng nào đã mở
+    public int probeScore(Board board, int ply) {
+        int value = probe(board);
+        if (value == UNKNOWN)
+            return UNKNOWN;
+        if (value == 0)
+            return 0;
+        if ((value & LOSS) != 0)
+            return -Search.MATE + ply + (value & 0x7F);
+        return Search.MATE - ply - value;
+    }
+
+    // Giá trị byte của bảng (xem mô tả ở đầu lớp), UNKNOWN nếu không có
+    public int probe(Board board) {
+        long occupied = board.getOccupied();
+        int count = Long.bitCount(occupied);
+        if (count > MAX_PIECES)
+            return UNKNOWN;
+
+        long whiteKing = board.getPieces(PieceColor.WHITE, Piece.KING);
+        long blackKing = board.getPieces(PieceColor.BLACK, Piece.KING);
+        long whiteOthers = board.getOccupancy(PieceColor.WHITE) & ~whiteKing;
+        long blackOthers = board.getOccupancy(PieceColor.BLACK) & ~blackKing;
+        if (whiteKing == 0 || blackKing == 0)
+            return UNKNOWN;
+
+        // Chỉ còn hai vua, hoặc thêm một quân nhẹ: hòa chắc chắn
+        long minors = board.getPieces(PieceColor.WHITE, Piece.BISHOP) | board.getPieces(PieceColor.WHITE, Piece.KNIGHT)
+                | board.getPieces(PieceColor.BLACK, Piece.BISHOP) | board.getPieces(PieceColor.BLACK, Piece.KNIGHT);
+        if (count == 2 || (count == 3 && (occupied & minors) != 0))
+            return 0;
+
+        PieceColor strong;
+        if (blackOthers == 0)
+            strong = PieceColor.WHITE;
+        else if (whiteOthers == 0)
+            strong = PieceColor.BLACK;
+        else
+            return UNKNOWN;
+
+        for (int t = 0; t < NAMES.length; t++) {
+            if (tables[t] == null || !matches(board, strong, PIECES[t], count))
+                continue;
+            int flip = (strong == PieceColor.WHITE) ? 0 : 56;
+            PieceColor weak = (strong == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+            long index = (board.getSideToMove() == strong) ? 0 : 1;
+            index = index * 64 + (board.getKingSquare(strong) ^ flip);
+            index = index * 64 + (board.getKingSquare(weak) ^ flip);
+            for (int type : PIECES[t]) {
+                index = index * 64 + (Long.numberOfTrailingZeros(board.getPieces(strong, type)) ^ flip);
+            }
+            return tables[t].get((int) index) & 0xFF;
+        }
+        return UNKNOWN;
+    }
+
+    // Bên mạnh có đúng các quân types (mỗi loại một quân) ngoài vua
+    private static boolean matches(Board board, PieceColor strong, int[] types, int count) {
+        if (count != 2 + types.length)
+            return false;
+        for (int type : types) {
+            if (Long.bitCount(board.getPieces(strong, type)) != 1)
+                return false;
+        }
+        return true;
+    }
+
+    // Nước đi tốt nhất theo bảng: thắng nhanh nhất, hoặc thua chậm nhất.
+    // NONE nếu thế cờ (hoặc một thế cờ sau nước đi) không tra được.
+    public int bestMove(Board board) {
+        if (probe(board) == UNKNOWN)
+            return PackedMove.NONE;
+
+        IntMoveList moves = new IntMoveList();
+        board.generateLegalMoves(board.getSideToMove(), moves);
+        int bestMove = PackedMove.NONE;
+        int bestScore = -Search.INFINITY;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            int score = probeScore(board, 1);
+            board.unmakeMove(move);
+            if (score == UNKNOWN)
+                return PackedMove.NONE;
+            if (-score > bestScore) {
+                bestScore = -score;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+}
@@ -0,0 +1,359 @@
+package modelAI;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+import model.Bitboards;
+import model.Piece;
+
+// Tạo bảng tàn cuộc bằng phân tích ngược (retrograde) cho các thế bên mạnh (trắng) có
+// vua + 1-2 quân, bên yếu (đen) chỉ còn vua. Chạy ngoại tuyến, song song trên mọi lõi.
+//
+// Bắt đầu từ các thế bị chiếu hết (thua 0 nửa nước), rồi lặp:
+//  - lượt lẻ n: thế bên mạnh đi, có nước dẫn tới thế thua <= n - 1 -> thắng n
+//  - lượt chẵn n: thế bên yếu đi, mọi nước đều dẫn tới thế thắng <= n - 1 -> thua (max + 1)
+// Mỗi lượt chỉ đọc thế cờ của bên kia và chỉ ghi thế cờ của bên mình nên các luồng
+// không tranh chấp. Dừng khi hai lượt liên tiếp không có thay đổi; còn lại là hòa.
+//
+// Phong hậu hoặc xe tra tiếp bảng KQK / KRK; phong mã, tượng chỉ còn hòa nên bỏ qua.
+// Tạo KPK thì KQK và KRK cũng được ghi ra vì Tablebase cần chúng khi tra sau phong cấp.
+//
+// Cách chạy: java modelAI.TablebaseGenerator <thư mục ra> [KQK KRK KPK KBNK]
+public class TablebaseGenerator {
+    // Giá trị tạm trong lúc tạo, đổi về 0 (hòa) khi ghi tệp
+    private static final byte ILLEGAL = (byte) 0xFF;
+    private static final byte DRAW = (byte) 0xFE;
+    private static final int BLOCK = 1 << 12;
+
+    private final int[] types;
+    private final int extra;
+    private final byte[] values;
+    private final byte[][] promotionTables; // { KQK, KRK }, chỉ dùng cho KPK
+
+    private TablebaseGenerator(int[] types, byte[][] promotionTables) {
+        this.types = types;
+        this.extra = types.length;
+        this.values = new byte[(int) Tablebase.tableSize(extra)];
+        this.promotionTables = promotionTables;
+    }
+
+    // --- CHỈ SỐ ---
+    private int index(int stm, int strongKing, int weakKing, int[] pieces) {
+        int index = ((stm * 64 + strongKing) * 64) + weakKing;
+        for (int i = 0; i < extra; i++) {
+            index = index * 64 + pieces[i];
+        }
+        return index;
+    }
+
+    // --- TẠO BẢNG ---
+    private void generate() {
+        long start = System.nanoTime();
+        int blocks = values.length / BLOCK;
+
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            Position p = new Position(extra);
+            for (int i = b * BLOCK, end = i + BLOCK; i < end; i++) {
+                values[i] = initial(p.decode(i));
+            }
+        });
+
+        int quiet = 0;
+        for (int n = 1; n < 127 && quiet < 2; n++) {
+            final int ply = n;
+            // Lượt lẻ chỉ xét nửa đầu (bên mạnh đi), lượt chẵn nửa sau (bên yếu đi)
+            int first = (n % 2 == 1) ? 0 : blocks / 2;
+            long changed = IntStream.range(first, first + blocks / 2).parallel().mapToLong(b -> {
+                Position p = new Position(extra);
+                long count = 0;
+                for (int i = b * BLOCK, end = i + BLOCK; i < end; i++) {
+                    if (values[i] != 0)
+                        continue;
+                    p.decode(i);
+                    byte v = (p.stm == 0) ? strongValue(p, ply) : weakValue(p, ply);
+                    if (v != 0) {
+                        values[i] = v;
+                        count++;
+                    }
+                }
+                return count;
+            }).sum();
+            quiet = (changed == 0) ? quiet + 1 : 0;
+        }
+
+        System.out.printf("%s: %d thế cờ, %.1f s%n", name(), values.length, (System.nanoTime() - start) / 1e9);
+    }
+
+    private String name() {
+        for (int i = 0; i < Tablebase.NAMES.length; i++) {
+            if (Tablebase.PIECES[i] == types)
+                return Tablebase.NAMES[i];
+        }
+        return "?";
+    }
+
+    // Thế cờ hợp lệ ban đầu: 0 (chưa biết), hoặc đã rõ (bị chiếu hết / hết nước)
+    private byte initial(Position p) {
+        long occupied = (1L << p.strongKing) | (1L << p.weakKing);
+        for (int i = 0; i < extra; i++) {
+            long bit = 1L << p.pieces[i];
+            if ((occupied & bit) != 0)
+                return ILLEGAL;
+            if (types[i] == Piece.PAWN && (p.pieces[i] < 8 || p.pieces[i] >= 56))
+                return ILLEGAL;
+            occupied |= bit;
+        }
+        if ((Bitboards.KING_ATTACKS[p.strongKing] & (1L << p.weakKing)) != 0)
+            return ILLEGAL;
+
+        boolean inCheck = (strongAttacks(p, occupied, -1) & (1L << p.weakKing)) != 0;
+        if (p.stm == 0)
+            return inCheck ? ILLEGAL : 0;
+
+        if (weakMoveCount(p, occupied) == 0)
+            return inCheck ? (byte) Tablebase.LOSS : DRAW;
+        return 0;
+    }
+
+    // Các ô bị quân mạnh tấn công (bỏ qua quân skip, dùng khi quân đó vừa bị ăn)
+    private long strongAttacks(Position p, long occupied, int skip) {
+        long attacks = Bitboards.KING_ATTACKS[p.strongKing];
+        for (int i = 0; i < extra; i++) {
+            if (i != skip)
+                attacks |= pieceAttacks(types[i], p.pieces[i], occupied);
+        }
+        return attacks;
+    }
+
+    private static long pieceAttacks(int type, int sq, long occupied) {
+        switch (type) {
+        case Piece.PAWN:
+            return Bitboards.PAWN_ATTACKS[0][sq];
+        case Piece.KNIGHT:
+            return Bitboards.KNIGHT_ATTACKS[sq];
+        case Piece.BISHOP:
+            return Bitboards.bishopAttacks(sq, occupied);
+        case Piece.ROOK:
+            return Bitboards.rookAttacks(sq, occupied);
+        default:
+            return Bitboards.queenAttacks(sq, occupied);
+        }
+    }
+
+    private int weakMoveCount(Position p, long occupied) {
+        int count = 0;
+        long targets = Bitboards.KING_ATTACKS[p.weakKing];
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (weakMoveResult(p, occupied, to) != NO_MOVE)
+                count++;
+        }
+        return count;
+    }
+
+    private static final int NO_MOVE = -1;
+    private static final int CAPTURE = -2;
+
+    // Kết quả vua yếu đi tới ô to: NO_MOVE nếu không hợp lệ, CAPTURE nếu ăn quân
+    // (chỉ còn vua + không quá một quân nhẹ hoặc vua đối vua: hòa), ngược lại là chỉ số
+    // thế cờ sau nước đi
+    private int weakMoveResult(Position p, long occupied, int to) {
+        long bit = 1L << to;
+        long without = occupied & ~(1L << p.weakKing); // tia của quân trượt xuyên qua ô vua vừa rời
+        int captured = -1;
+        for (int i = 0; i < extra; i++) {
+            if (p.pieces[i] == to)
+                captured = i;
+        }
+        if (captured >= 0) {
+            if ((strongAttacks(p, without & ~bit, captured) & bit) != 0)
+                return NO_MOVE; // quân được bảo vệ
+            return CAPTURE;
+        }
+        if ((bit & occupied) != 0 || (strongAttacks(p, without, -1) & bit) != 0)
+            return NO_MOVE;
+        return index(0, p.strongKing, to, p.pieces);
+    }
+
+    // Lượt chẵn: bên yếu thua nếu mọi nước đều dẫn tới thế bên mạnh thắng <= ply - 1
+    private byte weakValue(Position p, int ply) {
+        long occupied = p.occupied();
+        long targets = Bitboards.KING_ATTACKS[p.weakKing];
+        int longest = -1;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int result = weakMoveResult(p, occupied, to);
+            if (result == NO_MOVE)
+                continue;
+            if (result == CAPTURE)
+                return 0;
+            int v = values[result] & 0xFF;
+            if (v == 0 || v >= Tablebase.LOSS || v > ply - 1)
+                return 0;
+            longest = Math.max(longest, v);
+        }
+        return (longest < 0) ? 0 : (byte) (Tablebase.LOSS | (longest + 1));
+    }
+
+    // Lượt lẻ: bên mạnh thắng nếu có nước dẫn tới thế bên yếu thua <= ply - 1
+    private byte strongValue(Position p, int ply) {
+        long occupied = p.occupied();
+        long own = occupied & ~(1L << p.weakKing);
+        long forbidden = own | (1L << p.weakKing);
+        int shortest = Integer.MAX_VALUE;
+
+        // Vua mạnh: không được đứng cạnh vua yếu
+        long targets = Bitboards.KING_ATTACKS[p.strongKing] & ~forbidden & ~Bitboards.KING_ATTACKS[p.weakKing];
+        int from = p.strongKing;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            p.strongKing = to;
+            shortest = Math.min(shortest, lossDistance(values[index(1, to, p.weakKing, p.pieces)], ply));
+        }
+        p.strongKing = from;
+
+        for (int i = 0; i < extra; i++) {
+            int sq = p.pieces[i];
+            if (types[i] == Piece.PAWN) {
+                // Tốt trắng tiến về hàng 0
+                int push = sq - 8;
+                if ((occupied & (1L << push)) == 0) {
+                    shortest = Math.min(shortest, pawnMove(p, i, push, ply));
+                    if (sq >= 48 && (occupied & (1L << (push - 8))) == 0)
+                        shortest = Math.min(shortest, pawnMove(p, i, push - 8, ply));
+                }
+                continue;
+            }
+            targets = pieceAttacks(types[i], sq, occupied) & ~forbidden;
+            while (targets != 0) {
+                int to = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                p.pieces[i] = to;
+                shortest = Math.min(shortest, lossDistance(values[index(1, p.strongKing, p.weakKing, p.pieces)], ply));
+            }
+            p.pieces[i] = sq;
+        }
+
+        return (shortest == Integer.MAX_VALUE) ? 0 : (byte) (shortest + 1);
+    }
+
+    private int pawnMove(Position p, int i, int to, int ply) {
+        if (to < 8) {
+            // Phong cấp: tra bảng KQK và KRK (bên yếu đi), xe đôi khi tránh được hết nước đi
+            int[] promoted = { to };
+            int index = index(1, p.strongKing, p.weakKing, promoted);
+            return Math.min(lossDistance(promotionTables[0][index], ply), lossDistance(promotionTables[1][index], ply));
+        }
+        int sq = p.pieces[i];
+        p.pieces[i] = to;
+        int d = lossDistance(values[index(1, p.strongKing, p.weakKing, p.pieces)], ply);
+        p.pieces[i] = sq;
+        return d;
+    }
+
+    // Khoảng cách thua của thế bên yếu đi nếu đã biết và <= ply - 1, ngược lại MAX_VALUE
+    private static int lossDistance(byte value, int ply) {
+        int v = value & 0xFF;
+        if (v < Tablebase.LOSS || v == (DRAW & 0xFF) || v == (ILLEGAL & 0xFF))
+            return Integer.MAX_VALUE;
+        int d = v & 0x7F;
+        return (d <= ply - 1) ? d : Integer.MAX_VALUE;
+    }
+
+    // --- GHI TỆP ---
+    private void write(Path file) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == ILLEGAL || values[i] == DRAW)
+                values[i] = 0;
+        }
+        ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(Tablebase.MAGIC).putInt(Tablebase.VERSION).putLong(values.length).flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(header);
+            ByteBuffer body = ByteBuffer.wrap(values);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    // Thế cờ giải mã từ chỉ số, dùng lại trong một khối để tránh tạo đối tượng
+    private static final class Position {
+        int stm;
+        int strongKing;
+        int weakKing;
+        final int[] pieces;
+
+        Position(int extra) {
+            pieces = new int[extra];
+        }
+
+        Position decode(int index) {
+            for (int i = pieces.length - 1; i >= 0; i--) {
+                pieces[i] = index & 63;
+                index >>>= 6;
+            }
+            weakKing = index & 63;
+            strongKing = (index >>> 6) & 63;
+            stm = index >>> 12;
+            return this;
+        }
+
+        long occupied() {
+            long occupied = (1L << strongKing) | (1L << weakKing);
+            for (int sq : pieces) {
+                occupied |= 1L << sq;
+            }
+            return occupied;
+        }
+    }
+
+    // --- DÒNG LỆNH ---
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Cách dùng: TablebaseGenerator <thư mục ra> [KQK KRK KPK KBNK]");
+            return;
+        }
+        Path dir = Paths.get(args[0]);
+        Files.createDirectories(dir);
+
+        boolean all = args.length == 1;
+        byte[][] promotionTables = new byte[2][];
+        for (int t = 0; t < Tablebase.NAMES.length; t++) {
+            String name = Tablebase.NAMES[t];
+            boolean wanted = all;
+            for (int i = 1; i < args.length; i++) {
+                wanted |= args[i].equalsIgnoreCase(name);
+            }
+            // KPK cần KQK và KRK cho nước phong cấp, cả khi tạo và khi tra
+            wanted |= t < 2 && contains(args, "KPK");
+            if (!wanted)
+                continue;
+
+            TablebaseGenerator generator = new TablebaseGenerator(Tablebase.PIECES[t], promotionTables);
+            generator.generate();
+            if (t < 2)
+                promotionTables[t] = generator.values.clone();
+            generator.write(dir.resolve(name + ".cvtb"));
+        }
+    }
+
+    private static boolean contains(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equalsIgnoreCase(name))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+package modelAI;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Bảng chuyển vị kích thước cố định, nằm ngoài heap (direct ByteBuffer).
+//
+// Mỗi mục 16 byte gồm 2 long: [key ^ data][data]. Khi đọc, mục chỉ hợp lệ nếu
+// word0 ^ data == key, nên nhiều luồng có thể ghi/đọc cùng lúc mà không cần khóa:
+// một mục bị ghi dở (hai long của hai lần ghi khác nhau) sẽ không khớp khóa và bị bỏ qua.
+//
+// Bố cục data:
+//  bit  0-23: nước đi tốt nhất (PackedMove)
+//  bit 24-39: điểm (16 bit có dấu)
+//  bit 40-47: độ sâu
+//  bit 48-49: loại cận (BOUND_*)
+//  bit 50-57: thế hệ tìm kiếm (để thay thế mục cũ)
+public class TranspositionTable {
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2; // điểm >= giá trị lưu (cắt beta)
+    public static final int BOUND_UPPER = 3; // điểm <= giá trị lưu (không vượt alpha)
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int CHUNK_BITS = 26; // 2^26 mục = 1 GB mỗi buffer
+
+    private final ByteBuffer[] chunks;
+    private final long mask;
+    private final int chunkMask;
+    // Chỉ luồng bắt đầu lần tìm kiếm gốc mới đổi; các luồng Lazy SMP chỉ đọc
+    private volatile int generation;
+
+    public TranspositionTable(int megabytes) {
+        long requested = Math.max(1, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        long entries = Long.highestOneBit(requested);
+        mask = entries - 1;
+
+        int entriesPerChunk = (int) Math.min(entries, 1L << CHUNK_BITS);
+        chunkMask = entriesPerChunk - 1;
+        chunks = new ByteBuffer[(int) (entries / entriesPerChunk)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(entriesPerChunk * ENTRY_BYTES).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    // Gọi một lần cho mỗi lần tìm kiếm gốc (không phải mỗi luồng) để các mục cũ được ưu
+    // tiên thay thế
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    public void clear() {
+        for (ByteBuffer chunk : chunks) {
+            for (int i = 0; i < chunk.capacity(); i += 8) {
+                chunk.putLong(i, 0L);
+            }
+        }
+        generation = 0;
+    }
+
+    public long capacity() {
+        return mask + 1;
+    }
+
+    // --- ĐỌC / GHI ---
+    // Trả về data của mục khớp khóa, hoặc 0 nếu không có
+    public long probe(long key) {
+        long index = key & mask;
+        ByteBuffer chunk = chunks[(int) (index >>> CHUNK_BITS)];
+        int offset = ((int) index & chunkMask) * ENTRY_BYTES;
+
+        long data = chunk.getLong(offset + 8);
+        long check = chunk.getLong(offset);
+        return ((check ^ data) == key) ? data : 0L;
+    }
+
+    // Ô của key đang chứa một thế cờ khác (dùng cho thống kê khi probe trượt)
+    public boolean isCollision(long key) {
+        long index = key & mask;
+        ByteBuffer chunk = chunks[(int) (index >>> CHUNK_BITS)];
+        int offset = ((int) index & chunkMask) * ENTRY_BYTES;
+
+        long data = chunk.getLong(offset + 8);
+        return data != 0 && (chunk.getLong(offset) ^ data) != key;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        long index = key & mask;
+        ByteBuffer chunk = chunks[(int) (index >>> CHUNK_BITS)];
+        int offset = ((int) index & chunkMask) * ENTRY_BYTES;
+
+        int gen = generation;
+        long oldData = chunk.getLong(offset + 8);
+        long oldKey = chunk.getLong(offset) ^ oldData;
+        if (oldData != 0 && oldKey == key) {
+            // Cùng thế cờ: giữ mục sâu hơn, trừ khi mục mới là điểm chính xác
+            if (depth < depth(oldData) && bound != BOUND_EXACT) {
+                return;
+            }
+            if (move == PackedMove.NONE) {
+                move = move(oldData); // giữ lại nước đi tốt nhất cũ
+            }
+        } else if (oldData != 0 && generation(oldData) == gen && depth < depth(oldData)) {
+            // Thế cờ khác cùng lần tìm kiếm và sâu hơn: không thay
+            return;
+        }
+
+        long data = (move & 0xFFFFFFL)
+                | ((score & 0xFFFFL) << 24)
+                | ((long) (depth & 0xFF) << 40)
+                | ((long) bound << 48)
+                | ((long) gen << 50);
+        chunk.putLong(offset, key ^ data);
+        chunk.putLong(offset + 8, data);
+    }
+
+    // --- GIẢI MÃ MỤC ---
+    public static int move(long data) {
+        return (int) (data & 0xFFFFFF);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 24);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 40) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 48) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 50) & 0xFF);
+    }
+}
@@ -4,6 +4,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import model.*;
 import modelAI.*;
 
@@ -16,6 +17,20 @@ public class ChessUI extends JFrame {
     private JPanel boardPanel;
     private JTextArea moveHistoryArea;
     
+    // Chơi với máy: máy cầm computerColor (null = hai người chơi), tìm nước đi trên luồng nền
+    private static final long ENGINE_TIME_MILLIS = 2000;
+    // Chừa một lõi CPU cho luồng giao diện (độ ưu tiên luồng không có tác dụng trên Linux)
+    private static final int ENGINE_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private PieceColor computerColor = null;
+    private EngineWorker engineWorker;
+    private TranspositionTable transpositionTable; // dùng lại giữa các nước, tạo khi cần
+    private PawnTable[] pawnTables; // mỗi luồng tìm kiếm một bảng, dùng lại giữa các nước
+    private PolyglotBook book = PolyglotBook.openDefault(); // -Dcovua.book=<tệp .bin>
+    private Tablebase tablebase = Tablebase.openDefault(); // -Dcovua.tablebases=<thư mục>
+    private final java.util.Random random = new java.util.Random();
+    private JLabel engineLabel;
+    private JProgressBar engineProgress;
+    
     // Màu sắc cho bàn cờ
     private Color lightColor = new Color(240, 217, 181);
     private Color darkColor = new Color(181, 136, 99);
@@ -199,6 +214,15 @@ public class ChessUI extends JFrame {
         JButton resignBtn = createButton("Đầu hàng", e -> resign());
         JButton helpBtn = createButton("Nước đi hợp lệ", e -> showLegalMoves());
         JButton colorBtn = createButton("Đổi màu quân", e -> changePieceColors());
+        JButton computerBtn = createButton("Chơi với máy", e -> choosePlayMode());
+        
+        // Trạng thái máy đang nghĩ
+        engineLabel = new JLabel(" ");
+        engineLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        engineProgress = new JProgressBar(0, 100);
+        engineProgress.setMaximumSize(new Dimension(180, 15));
+        engineProgress.setAlignmentX(Component.CENTER_ALIGNMENT);
+        engineProgress.setVisible(false);
         
         // Khu vực lịch sử nước đi
         JLabel historyLabel = new JLabel("Lịch sử nước đi:");
@@ -221,6 +245,11 @@ public class ChessUI extends JFrame {
         infoPanel.add(helpBtn);
         infoPanel.add(Box.createVerticalStrut(5));
         infoPanel.add(colorBtn);
+        infoPanel.add(Box.createVerticalStrut(5));
+        infoPanel.add(computerBtn);
+        infoPanel.add(Box.createVerticalStrut(10));
+        infoPanel.add(engineLabel);
+        infoPanel.add(engineProgress);
         infoPanel.add(Box.createVerticalStrut(20));
         infoPanel.add(historyLabel);
         infoPanel.add(Box.createVerticalStrut(5));
@@ -244,16 +273,19 @@ public class ChessUI extends JFrame {
         JMenuItem newGameItem = new JMenuItem("Trận mới");
         JMenuItem undoItem = new JMenuItem("Hoàn tác");
         JMenuItem resignItem = new JMenuItem("Đầu hàng");
+        JMenuItem computerItem = new JMenuItem("Chơi với máy...");
         JMenuItem exitItem = new JMenuItem("Thoát");
         
         newGameItem.addActionListener(e -> newGame());
         undoItem.addActionListener(e -> undoMove());
         resignItem.addActionListener(e -> resign());
+        computerItem.addActionListener(e -> choosePlayMode());
         exitItem.addActionListener(e -> System.exit(0));
         
         gameMenu.add(newGameItem);
         gameMenu.add(undoItem);
         gameMenu.add(resignItem);
+        gameMenu.add(computerItem);
         gameMenu.addSeparator();
         gameMenu.add(exitItem);
         
@@ -289,6 +321,11 @@ public class ChessUI extends JFrame {
     }
     
     private void handleSquareClick(int row, int col) {
+        // Bỏ qua khi đang đến lượt máy
+        if (isComputerTurn()) {
+            return;
+        }
+        
         // Nếu chưa chọn quân nào
         if (selectedPosition == null) {
             Piece piece = board.getPiece(row, col);
@@ -317,25 +354,198 @@ public class ChessUI extends JFrame {
             }
             
             // Thực hiện nước đi
-            if (board.makeMove(fromRow, fromCol, row, col, currentPlayer)) {
-                // Thêm vào lịch sử
-                addMoveToHistory(fromRow, fromCol, row, col);
-                
-                // Kiểm tra kết thúc trò chơi
-                checkGameEnd();
-                
-                if (!board.isCheckmate(currentPlayer) && !board.isDraw()) {
-                    // Đổi lượt
-                    currentPlayer = (currentPlayer == PieceColor.WHITE) ? 
-                                    PieceColor.BLACK : PieceColor.WHITE;
-                    updateStatus();
-                }
-            }
+            boolean moved = applyPlayerMove(fromRow, fromCol, row, col);
             
             // Xóa selection và highlight
             clearHighlights();
             selectedPosition = null;
             updateBoard();
+            
+            if (moved) {
+                startComputerMove();
+            }
+        }
+    }
+    
+    // Đi nước của bên hiện tại, ghi lịch sử và đổi lượt; dùng cho cả người và máy
+    private boolean applyPlayerMove(int fromRow, int fromCol, int toRow, int toCol) {
+        return applyPlayerMove(fromRow, fromCol, toRow, toCol, 0);
+    }
+    
+    // Nước đi của máy / sách khai cuộc (PackedMove), giữ nguyên quân phong cấp
+    private boolean applyPackedMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        return applyPlayerMove(from / 8, from % 8, to / 8, to % 8, PackedMove.promotion(move));
+    }
+    
+    // promotion: quân phong cấp (0 = hậu)
+    private boolean applyPlayerMove(int fromRow, int fromCol, int toRow, int toCol, int promotion) {
+        if (!board.makeMove(fromRow, fromCol, toRow, toCol, currentPlayer, promotion)) {
+            return false;
+        }
+        
+        // Thêm vào lịch sử
+        addMoveToHistory(fromRow, fromCol, toRow, toCol);
+        
+        // Kiểm tra kết thúc trò chơi
+        checkGameEnd();
+        
+        if (!board.isCheckmate(currentPlayer) && !board.isDraw()) {
+            // Đổi lượt
+            currentPlayer = (currentPlayer == PieceColor.WHITE) ? 
+                            PieceColor.BLACK : PieceColor.WHITE;
+            updateStatus();
+        }
+        return true;
+    }
+    
+    // --- CHƠI VỚI MÁY ---
+    private boolean isComputerTurn() {
+        return computerColor != null && currentPlayer == computerColor;
+    }
+    
+    private boolean isGameFinished() {
+        return board.isCheckmate(currentPlayer) || board.isDraw();
+    }
+    
+    private void choosePlayMode() {
+        Object[] options = {"Máy cầm quân đen", "Máy cầm quân trắng", "Hai người chơi"};
+        int choice = JOptionPane.showOptionDialog(this,
+            "Chọn chế độ chơi:",
+            "Chơi với máy",
+            JOptionPane.DEFAULT_OPTION,
+            JOptionPane.QUESTION_MESSAGE,
+            null,
+            options,
+            options[0]);
+        
+        switch (choice) {
+            case 0:
+                computerColor = PieceColor.BLACK;
+                break;
+            case 1:
+                computerColor = PieceColor.WHITE;
+                break;
+            case 2:
+                computerColor = null;
+                break;
+            default:
+                return;
+        }
+        
+        cancelComputerMove();
+        startComputerMove();
+    }
+    
+    // Bắt đầu tìm nước đi trên luồng nền nếu đến lượt máy
+    private void startComputerMove() {
+        if (!isComputerTurn() || engineWorker != null || isGameFinished()) {
+            return;
+        }
+        
+        // Sách khai cuộc: tra nhị phân trên tệp ánh xạ bộ nhớ, đủ nhanh để làm ngay trên luồng giao diện
+        int bookMove = (book != null) ? book.probe(board, random) : PackedMove.NONE;
+        if (bookMove != PackedMove.NONE) {
+            engineLabel.setText("Máy đi: " + PackedMove.toString(bookMove) + " (sách)");
+            applyPackedMove(bookMove);
+            updateBoard();
+            return;
+        }
+        
+        if (transpositionTable == null) {
+            transpositionTable = new TranspositionTable(64);
+        }
+        if (pawnTables == null) {
+            pawnTables = new PawnTable[ENGINE_THREADS];
+        }
+        
+        engineWorker = new EngineWorker(board.cloneBoard());
+        engineLabel.setText("Máy đang nghĩ...");
+        engineProgress.setValue(0);
+        engineProgress.setVisible(true);
+        engineWorker.execute();
+    }
+    
+    // Dừng tìm kiếm đang chạy; kết quả của nó sẽ bị bỏ qua
+    private void cancelComputerMove() {
+        if (engineWorker != null) {
+            engineWorker.abort();
+            engineWorker = null;
+            pawnTables = null; // luồng bị hủy có thể còn ghi vào bảng tốt một lúc
+        }
+        engineLabel.setText(" ");
+        engineProgress.setVisible(false);
+    }
+    
+    // Tìm kiếm trên bản sao Board (Lazy SMP) với ENGINE_THREADS luồng; Board của giao diện
+    // không bị chạm tới.
+    private class EngineWorker extends SwingWorker<SearchResult, SearchResult> {
+        private final Board position;
+        private final ParallelSearch search;
+        private final long start = System.nanoTime();
+        
+        EngineWorker(Board position) {
+            this.position = position;
+            this.search = new ParallelSearch(transpositionTable, pawnTables);
+            search.setListener(this::publish);
+            search.setTablebase(tablebase);
+        }
+        
+        void abort() {
+            search.stop();
+            cancel(false);
+        }
+        
+        @Override
+        protected SearchResult doInBackground() {
+            return search.search(position, new SearchLimits(0, 0, ENGINE_TIME_MILLIS), ENGINE_THREADS);
+        }
+        
+        @Override
+        protected void process(List<SearchResult> chunks) {
+            if (engineWorker != this) {
+                return;
+            }
+            SearchResult latest = chunks.get(chunks.size() - 1);
+            long elapsed = (System.nanoTime() - start) / 1_000_000L;
+            engineLabel.setText(String.format("Độ sâu %d: %s (%+.2f)",
+                latest.depth, PackedMove.toString(latest.bestMove), latest.score / 100.0));
+            engineProgress.setValue((int) Math.min(100, elapsed * 100 / ENGINE_TIME_MILLIS));
+        }
+        
+        @Override
+        protected void done() {
+            if (engineWorker != this || isCancelled()) {
+                return; // đã bị hủy bởi hoàn tác hoặc trận mới
+            }
+            engineWorker = null;
+            engineProgress.setVisible(false);
+            
+            SearchResult result;
+            try {
+                result = get();
+            } catch (Exception e) {
+                // Không để ván cờ kẹt ở lượt máy: chuyển sang hai người chơi và báo lỗi
+                Throwable cause = (e instanceof ExecutionException && e.getCause() != null) ? e.getCause() : e;
+                computerColor = null;
+                engineLabel.setText("Lỗi khi máy tìm nước đi");
+                JOptionPane.showMessageDialog(ChessUI.this,
+                    "Máy không tìm được nước đi: " + cause + "\nĐã chuyển sang chế độ hai người chơi.",
+                    "Lỗi",
+                    JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (!result.hasMove()) {
+                engineLabel.setText(" ");
+                return;
+            }
+            
+            engineLabel.setText("Máy đi: " + PackedMove.toString(result.bestMove));
+            applyPackedMove(result.bestMove);
+            clearHighlights();
+            selectedPosition = null;
+            updateBoard();
         }
     }
     
@@ -469,6 +679,7 @@ public class ChessUI extends JFrame {
             JOptionPane.YES_NO_OPTION);
             
         if (result == JOptionPane.YES_OPTION) {
+            cancelComputerMove();
             board = new Board();
             currentPlayer = PieceColor.WHITE;
             selectedPosition = null;
@@ -477,6 +688,7 @@ public class ChessUI extends JFrame {
             clearHighlights();
             updateBoard();
             enableBoard();
+            startComputerMove();
         }
     }
     
@@ -489,30 +701,49 @@ public class ChessUI extends JFrame {
     }
     
     private void undoMove() {
-        if (board.undoLastMove()) {
-            // Đổi lượt về người chơi trước
-            currentPlayer = (currentPlayer == PieceColor.WHITE) ? 
-                            PieceColor.BLACK : PieceColor.WHITE;
-            updateStatus();
+        // Máy đang nghĩ: hủy tìm kiếm và chỉ hoàn tác nước của người.
+        // Máy đã đi: hoàn tác cả nước của máy để trở lại lượt người chơi.
+        boolean engineWasThinking = engineWorker != null;
+        cancelComputerMove();
+        
+        if (undoOnePly()) {
+            if (!engineWasThinking && isComputerTurn()) {
+                undoOnePly();
+            }
             clearHighlights();
+            selectedPosition = null;
             updateBoard();
-            
-            // Xóa nước đi cuối trong lịch sử
-            String text = moveHistoryArea.getText();
-            if (!text.isEmpty()) {
-                String[] lines = text.split("\n");
-                StringBuilder newText = new StringBuilder();
-                for (int i = 0; i < lines.length - 1; i++) {
-                    newText.append(lines[i]).append("\n");
-                }
-                moveHistoryArea.setText(newText.toString());
-            }
+            enableBoard();
+            startComputerMove(); // khi người chơi đã hoàn tác hết về lượt đầu của máy
         } else {
             JOptionPane.showMessageDialog(this,
                 "Không có nước đi nào để hoàn tác!",
                 "Hoàn tác",
                 JOptionPane.WARNING_MESSAGE);
+            startComputerMove(); // máy đang nghĩ nước đầu tiên thì đã bị hủy ở trên: nghĩ lại
+        }
+    }
+    
+    private boolean undoOnePly() {
+        if (!board.undoLastMove()) {
+            return false;
+        }
+        // Đổi lượt về người chơi trước
+        currentPlayer = (currentPlayer == PieceColor.WHITE) ? 
+                        PieceColor.BLACK : PieceColor.WHITE;
+        updateStatus();
+        
+        // Xóa nước đi cuối trong lịch sử
+        String text = moveHistoryArea.getText();
+        if (!text.isEmpty()) {
+            String[] lines = text.split("\n");
+            StringBuilder newText = new StringBuilder();
+            for (int i = 0; i < lines.length - 1; i++) {
+                newText.append(lines[i]).append("\n");
+            }
+            moveHistoryArea.setText(newText.toString());
         }
+        return true;
     }
     
     private void resign() {
@@ -524,6 +755,7 @@ public class ChessUI extends JFrame {
             JOptionPane.YES_NO_OPTION);
             
         if (result == JOptionPane.YES_OPTION) {
+            cancelComputerMove();
             JOptionPane.showMessageDialog(this,
                 winner + " THẮNG!\n" + currentPlayer + " đã đầu hàng.",
                 "Trận đấu kết thúc",